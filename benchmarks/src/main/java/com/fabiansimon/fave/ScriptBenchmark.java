@@ -0,0 +1,104 @@
+package com.fabiansimon.fave;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Measures each front-end stage and the interpreter on the programs in
+// resources/corpus. Every stage gets its input prepared once per trial, so a
+// benchmark only times its own stage. interpret runs a tree compiled afresh
+// for each invocation, as 'fave' compiles it, so it times the first run of a
+// script on a warmed-up JVM: no inline cache, JIT or megamorphic state
+// carries over from the run before.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ScriptBenchmark {
+    @Param({"fib", "loops", "strings", "oop", "closures", "lists"})
+    private String program;
+
+    private String source;
+    private List<Token> tokens;
+    private List<Stmt> statements;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (InputStream input = ScriptBenchmark.class.getResourceAsStream("/corpus/" + program + ".fave")) {
+            if (input == null) throw new IOException("Missing corpus program " + program);
+            source = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        ErrorReporter reporter = new ErrorReporter(program);
+        tokens = new Scanner(source, reporter).scanTokens();
+        statements = new Parser(tokens, reporter).parse();
+        new Resolver(reporter).resolve(statements);
+        if (reporter.hadError()) throw new IllegalStateException(program + " does not compile");
+
+        // Scripts print their result; keep that out of the measurement.
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    // The optimised and specialised tree, compiled before each call to
+    // interpret.
+    @State(Scope.Thread)
+    public static class Program {
+        private List<Stmt> statements;
+
+        @Setup(Level.Invocation)
+        public void compile(ScriptBenchmark benchmark) {
+            List<Stmt> compiled = Fave.compile(benchmark.source, new ErrorReporter(), CompileOptions.DEFAULT);
+            statements = new Specializer().specialize(compiled);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public List<Token> scan() {
+        return new Scanner(source, new ErrorReporter()).scanTokens();
+    }
+
+    @Benchmark
+    public List<Stmt> parse() {
+        return new Parser(tokens, new ErrorReporter()).parse();
+    }
+
+    @Benchmark
+    public List<Stmt> resolve() {
+        new Resolver(new ErrorReporter()).resolve(statements);
+        return statements;
+    }
+
+    @Benchmark
+    public Interpreter interpret(Program compiled) {
+        Interpreter interpreter = new Interpreter();
+        interpreter.interpret(compiled.statements, new ErrorReporter());
+        return interpreter;
+    }
+}
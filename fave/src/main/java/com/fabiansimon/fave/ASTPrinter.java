@@ -1,3 +1,5 @@
+package com.fabiansimon.fave;
+
 
 public class ASTPrinter implements Expr.Visitor<String> {
     String print(Expr expr) {
@@ -50,6 +52,26 @@ public class ASTPrinter implements Expr.Visitor<String> {
         return null;
     }
 
+    @Override
+    public String visitIndexExpr(Expr.Index expr) {
+        return parenthesize("index", expr.object, expr.index);
+    }
+
+    @Override
+    public String visitSetIndexExpr(Expr.SetIndex expr) {
+        return null;
+    }
+
+    @Override
+    public String visitListLiteralExpr(Expr.ListLiteral expr) {
+        return parenthesize("list", expr.elements.toArray(new Expr[0]));
+    }
+
+    @Override
+    public String visitMapLiteralExpr(Expr.MapLiteral expr) {
+        return null;
+    }
+
     @Override
     public String visitSuperExpr(Expr.Super expr) {
         return null;
@@ -78,4 +100,19 @@ public class ASTPrinter implements Expr.Visitor<String> {
 
         return output.toString();
     }
+
+    @Override
+    public String visitLocalIncrementExpr(Expr.LocalIncrement expr) {
+        return expr.original.accept(this);
+    }
+
+    @Override
+    public String visitCompareLocalsExpr(Expr.CompareLocals expr) {
+        return expr.original.accept(this);
+    }
+
+    @Override
+    public String visitCompareLocalConstantExpr(Expr.CompareLocalConstant expr) {
+        return expr.original.accept(this);
+    }
 }
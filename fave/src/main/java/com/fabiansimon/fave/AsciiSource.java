@@ -0,0 +1,44 @@
+package com.fabiansimon.fave;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Reads an ASCII buffer as characters in place, so a memory-mapped script
+// doesn't have to be decoded into a String before scanning.
+public class AsciiSource implements CharSequence {
+    private final ByteBuffer bytes;
+
+    AsciiSource(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    static boolean isAscii(ByteBuffer bytes) {
+        for (int i = bytes.position(); i < bytes.limit(); i++) {
+            if (bytes.get(i) < 0) return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public int length() {
+        return bytes.remaining();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) bytes.get(bytes.position() + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        byte[] text = new byte[end - start];
+        bytes.get(bytes.position() + start, text);
+        return new String(text, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length()).toString();
+    }
+}
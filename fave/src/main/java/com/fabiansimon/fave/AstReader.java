@@ -0,0 +1,257 @@
+package com.fabiansimon.fave;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.fabiansimon.fave.AstWriter.*;
+
+// Loads syntax trees written by AstWriter, with their resolver annotations,
+// so they can be handed straight to the Interpreter or BytecodeCompiler.
+public class AstReader {
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private final ByteBuffer in;
+    private final List<String> strings = new ArrayList<>();
+
+    AstReader(ByteBuffer in) {
+        this.in = in;
+    }
+
+    List<Stmt> read() throws IOException {
+        try {
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("Not a Fave syntax tree, or from another version.");
+            }
+
+            List<Stmt> statements = readStatements();
+            if (in.hasRemaining()) throw new IOException("Trailing data after syntax tree.");
+            return statements;
+        } catch (RuntimeException error) {
+            throw new IOException("Corrupt syntax tree.", error);
+        }
+    }
+
+    private List<Stmt> readStatements() {
+        int count = readInt();
+        List<Stmt> statements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) statements.add(readStmt());
+        return statements;
+    }
+
+    private Stmt readStmt() {
+        int tag = readInt();
+        switch (tag) {
+            case NONE:
+                return null;
+            case BLOCK: {
+                Stmt.Block stmt = new Stmt.Block(readStatements());
+                stmt.slots = readInt();
+                stmt.flattened = readBoolean();
+                return stmt;
+            }
+            case CLASS: {
+                Token name = readToken();
+                Expr.Variable superclass = (Expr.Variable) readExpr();
+                int count = readInt();
+                List<Stmt.Function> methods = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) methods.add((Stmt.Function) readStmt());
+
+                Stmt.Class stmt = new Stmt.Class(name, superclass, methods);
+                stmt.slot = readIndex();
+                return stmt;
+            }
+            case EXPRESSION:
+                return new Stmt.Expression(readExpr());
+            case FUNCTION: {
+                Token name = readToken();
+                int count = readInt();
+                List<Token> params = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) params.add(readToken());
+
+                Stmt.Function stmt = new Stmt.Function(name, params, readStatements());
+                stmt.slot = readIndex();
+                stmt.slots = readInt();
+                stmt.isMethod = readBoolean();
+                stmt.captured = readBoolean();
+                return stmt;
+            }
+            case IF: {
+                Expr condition = readExpr();
+                Stmt thenBranch = readStmt();
+                return new Stmt.If(condition, thenBranch, readStmt());
+            }
+            case PRINT:
+                return new Stmt.Print(readExpr());
+            case RETURN: {
+                Token keyword = readToken();
+                Stmt.Return stmt = new Stmt.Return(keyword, readExpr());
+                stmt.tailCall = readBoolean();
+                return stmt;
+            }
+            case VAR: {
+                Token name = readToken();
+                Stmt.Var stmt = new Stmt.Var(name, readExpr());
+                stmt.slot = readIndex();
+                return stmt;
+            }
+            case WHILE: {
+                Expr condition = readExpr();
+                return new Stmt.While(condition, readStmt());
+            }
+        }
+
+        throw new IllegalStateException("Unknown statement tag " + tag + ".");
+    }
+
+    private Expr readExpr() {
+        int tag = readInt();
+        if (tag == NONE) return null;
+
+        boolean numeric = readBoolean();
+        Expr expr = readExpr(tag);
+        expr.numeric = numeric;
+        return expr;
+    }
+
+    private Expr readExpr(int tag) {
+        switch (tag) {
+            case ASSIGN: {
+                Token name = readToken();
+                Expr.Assign expr = new Expr.Assign(name, readExpr());
+                expr.depth = readIndex();
+                expr.slot = readIndex();
+                return expr;
+            }
+            case BINARY: {
+                Expr left = readExpr();
+                Token operator = readToken();
+                return new Expr.Binary(left, operator, readExpr());
+            }
+            case CALL: {
+                Expr callee = readExpr();
+                Token paren = readToken();
+                return new Expr.Call(callee, paren, readExprs());
+            }
+            case GROUPING:
+                return new Expr.Grouping(readExpr());
+            case GET: {
+                Expr object = readExpr();
+                return new Expr.Get(object, readToken());
+            }
+            case LITERAL:
+                return new Expr.Literal(readValue());
+            case LOGICAL: {
+                Expr left = readExpr();
+                Token operator = readToken();
+                return new Expr.Logical(left, operator, readExpr());
+            }
+            case UNARY: {
+                Token operator = readToken();
+                return new Expr.Unary(operator, readExpr());
+            }
+            case SET: {
+                Expr object = readExpr();
+                Token name = readToken();
+                return new Expr.Set(object, name, readExpr());
+            }
+            case INDEX: {
+                Expr object = readExpr();
+                Token bracket = readToken();
+                return new Expr.Index(object, bracket, readExpr());
+            }
+            case SET_INDEX: {
+                Expr object = readExpr();
+                Token bracket = readToken();
+                Expr index = readExpr();
+                return new Expr.SetIndex(object, bracket, index, readExpr());
+            }
+            case LIST: {
+                Token bracket = readToken();
+                return new Expr.ListLiteral(bracket, readExprs());
+            }
+            case MAP: {
+                Token brace = readToken();
+                List<Expr> keys = readExprs();
+                return new Expr.MapLiteral(brace, keys, readExprs());
+            }
+            case SUPER: {
+                Token keyword = readToken();
+                Expr.Super expr = new Expr.Super(keyword, readToken());
+                expr.depth = readIndex();
+                return expr;
+            }
+            case THIS: {
+                Expr.This expr = new Expr.This(readToken());
+                expr.depth = readIndex();
+                expr.slot = readIndex();
+                return expr;
+            }
+            case VARIABLE: {
+                Expr.Variable expr = new Expr.Variable(readToken());
+                expr.depth = readIndex();
+                expr.slot = readIndex();
+                return expr;
+            }
+        }
+
+        throw new IllegalStateException("Unknown expression tag " + tag + ".");
+    }
+
+    private List<Expr> readExprs() {
+        int count = readInt();
+        List<Expr> expressions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) expressions.add(readExpr());
+        return expressions;
+    }
+
+    private Token readToken() {
+        TokenType type = TOKEN_TYPES[readInt()];
+        String lexeme = readString();
+        Object literal = readValue();
+        return new Token(type, lexeme, literal, readInt());
+    }
+
+    private String readString() {
+        int index = readInt();
+        if (index < strings.size()) return strings.get(index);
+
+        byte[] bytes = new byte[readInt()];
+        in.get(bytes);
+        String string = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(string);
+        return string;
+    }
+
+    private Object readValue() {
+        int tag = readInt();
+        switch (tag) {
+            case NIL: return null;
+            case TRUE: return true;
+            case FALSE: return false;
+            case NUMBER: return in.getDouble();
+            case STRING: return readString();
+        }
+
+        throw new IllegalStateException("Unknown value tag " + tag + ".");
+    }
+
+    private int readInt() {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    private int readIndex() {
+        return readInt() - 1;
+    }
+
+    private boolean readBoolean() {
+        return readInt() != 0;
+    }
+}
@@ -0,0 +1,412 @@
+package com.fabiansimon.fave;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Writes resolved syntax trees in the compact binary format AstReader loads.
+// Nodes are a tag byte followed by their fields; resolver annotations are
+// written with them, inline caches are not. Strings are written once and
+// referred to by index after that.
+public class AstWriter implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+    static final int MAGIC = 0x46415645; // "FAVE"
+    static final int VERSION = 5;
+
+    // Tags for nodes, shared with AstReader. 0 stands for a missing node.
+    static final int NONE = 0;
+    static final int ASSIGN = 1;
+    static final int BINARY = 2;
+    static final int CALL = 3;
+    static final int GROUPING = 4;
+    static final int GET = 5;
+    static final int LITERAL = 6;
+    static final int LOGICAL = 7;
+    static final int UNARY = 8;
+    static final int SET = 9;
+    static final int SUPER = 10;
+    static final int THIS = 11;
+    static final int VARIABLE = 12;
+    static final int BLOCK = 13;
+    static final int CLASS = 14;
+    static final int EXPRESSION = 15;
+    static final int FUNCTION = 16;
+    static final int IF = 17;
+    static final int PRINT = 18;
+    static final int RETURN = 19;
+    static final int VAR = 20;
+    static final int WHILE = 21;
+    static final int INDEX = 22;
+    static final int SET_INDEX = 23;
+    static final int LIST = 24;
+    static final int MAP = 25;
+
+    // Tags for literal values.
+    static final int NIL = 0;
+    static final int TRUE = 1;
+    static final int FALSE = 2;
+    static final int NUMBER = 3;
+    static final int STRING = 4;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    AstWriter(OutputStream out) {
+        this.out = new DataOutputStream(out);
+    }
+
+    void write(List<Stmt> statements) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        try {
+            writeStatements(statements);
+        } catch (UncheckedIOException error) {
+            throw error.getCause();
+        }
+
+        out.flush();
+    }
+
+    private void writeStatements(List<? extends Stmt> statements) {
+        writeInt(statements.size());
+        for (Stmt statement : statements) write(statement);
+    }
+
+    private void writeExprs(List<Expr> expressions) {
+        writeInt(expressions.size());
+        for (Expr expression : expressions) write(expression);
+    }
+
+    private void write(Stmt stmt) {
+        if (stmt == null) {
+            writeInt(NONE);
+        } else {
+            stmt.accept(this);
+        }
+    }
+
+    private void write(Expr expr) {
+        if (expr == null) {
+            writeInt(NONE);
+        } else {
+            expr.accept(this);
+        }
+    }
+
+    private void writeExpr(int tag, Expr expr) {
+        writeInt(tag);
+        writeBoolean(expr.numeric);
+    }
+
+    private void write(Token token) {
+        writeInt(token.type.ordinal());
+        write(token.lexeme);
+        writeValue(token.literal);
+        writeInt(token.line);
+    }
+
+    private void write(String string) {
+        Integer index = strings.get(string);
+        if (index != null) {
+            writeInt(index);
+            return;
+        }
+
+        index = strings.size();
+        strings.put(string, index);
+        writeInt(index);
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        try {
+            out.write(bytes);
+        } catch (IOException error) {
+            throw new UncheckedIOException(error);
+        }
+    }
+
+    private void writeValue(Object value) {
+        if (value == null) {
+            writeInt(NIL);
+        } else if (value instanceof Boolean) {
+            writeInt((boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Double) {
+            writeInt(NUMBER);
+            try {
+                out.writeDouble((double) value);
+            } catch (IOException error) {
+                throw new UncheckedIOException(error);
+            }
+        } else {
+            writeInt(STRING);
+            write((String) value);
+        }
+    }
+
+    // Unsigned LEB128; the -1 "unresolved" markers are shifted up by one first.
+    private void writeInt(int value) {
+        try {
+            while ((value & ~0x7f) != 0) {
+                out.writeByte((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        } catch (IOException error) {
+            throw new UncheckedIOException(error);
+        }
+    }
+
+    private void writeIndex(int value) {
+        writeInt(value + 1);
+    }
+
+    private void writeBoolean(boolean value) {
+        writeInt(value ? 1 : 0);
+    }
+
+    @Override
+    public Void visitAssignExpr(Expr.Assign expr) {
+        writeExpr(ASSIGN, expr);
+        write(expr.name);
+        write(expr.value);
+        writeIndex(expr.depth);
+        writeIndex(expr.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        writeExpr(BINARY, expr);
+        write(expr.left);
+        write(expr.operator);
+        write(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitCallExpr(Expr.Call expr) {
+        writeExpr(CALL, expr);
+        write(expr.callee);
+        write(expr.paren);
+        writeExprs(expr.arguments);
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        writeExpr(GROUPING, expr);
+        write(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitGetExpr(Expr.Get expr) {
+        writeExpr(GET, expr);
+        write(expr.object);
+        write(expr.name);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        writeExpr(LITERAL, expr);
+        writeValue(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(Expr.Logical expr) {
+        writeExpr(LOGICAL, expr);
+        write(expr.left);
+        write(expr.operator);
+        write(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        writeExpr(UNARY, expr);
+        write(expr.operator);
+        write(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitSetExpr(Expr.Set expr) {
+        writeExpr(SET, expr);
+        write(expr.object);
+        write(expr.name);
+        write(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitIndexExpr(Expr.Index expr) {
+        writeExpr(INDEX, expr);
+        write(expr.object);
+        write(expr.bracket);
+        write(expr.index);
+        return null;
+    }
+
+    @Override
+    public Void visitSetIndexExpr(Expr.SetIndex expr) {
+        writeExpr(SET_INDEX, expr);
+        write(expr.object);
+        write(expr.bracket);
+        write(expr.index);
+        write(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitListLiteralExpr(Expr.ListLiteral expr) {
+        writeExpr(LIST, expr);
+        write(expr.bracket);
+        writeExprs(expr.elements);
+        return null;
+    }
+
+    @Override
+    public Void visitMapLiteralExpr(Expr.MapLiteral expr) {
+        writeExpr(MAP, expr);
+        write(expr.brace);
+        writeExprs(expr.keys);
+        writeExprs(expr.values);
+        return null;
+    }
+
+    @Override
+    public Void visitSuperExpr(Expr.Super expr) {
+        writeExpr(SUPER, expr);
+        write(expr.keyword);
+        write(expr.method);
+        writeIndex(expr.depth);
+        return null;
+    }
+
+    @Override
+    public Void visitThisExpr(Expr.This expr) {
+        writeExpr(THIS, expr);
+        write(expr.keyword);
+        writeIndex(expr.depth);
+        writeIndex(expr.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        writeExpr(VARIABLE, expr);
+        write(expr.name);
+        writeIndex(expr.depth);
+        writeIndex(expr.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        writeInt(BLOCK);
+        writeStatements(stmt.statements);
+        writeInt(stmt.slots);
+        writeBoolean(stmt.flattened);
+        return null;
+    }
+
+    @Override
+    public Void visitClassStmt(Stmt.Class stmt) {
+        writeInt(CLASS);
+        write(stmt.name);
+        write(stmt.superclass);
+        writeStatements(stmt.methods);
+        writeIndex(stmt.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        writeInt(EXPRESSION);
+        write(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionStmt(Stmt.Function stmt) {
+        writeInt(FUNCTION);
+        write(stmt.name);
+        writeInt(stmt.params.size());
+        for (Token param : stmt.params) write(param);
+        writeStatements(stmt.body);
+        writeIndex(stmt.slot);
+        writeInt(stmt.slots);
+        writeBoolean(stmt.isMethod);
+        writeBoolean(stmt.captured);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        writeInt(IF);
+        write(stmt.condition);
+        write(stmt.thenBranch);
+        write(stmt.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        writeInt(PRINT);
+        write(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStmt(Stmt.Return stmt) {
+        writeInt(RETURN);
+        write(stmt.keyword);
+        write(stmt.value);
+        writeBoolean(stmt.tailCall);
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        writeInt(VAR);
+        write(stmt.name);
+        write(stmt.initializer);
+        writeIndex(stmt.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        writeInt(WHILE);
+        write(stmt.condition);
+        write(stmt.body);
+        return null;
+    }
+
+    // Specialised trees aren't cached, but would be written as the originals.
+    @Override
+    public Void visitLocalIncrementExpr(Expr.LocalIncrement expr) {
+        return expr.original.accept(this);
+    }
+
+    @Override
+    public Void visitCompareLocalsExpr(Expr.CompareLocals expr) {
+        return expr.original.accept(this);
+    }
+
+    @Override
+    public Void visitCompareLocalConstantExpr(Expr.CompareLocalConstant expr) {
+        return expr.original.accept(this);
+    }
+
+    @Override
+    public Void visitCountedLoopStmt(Stmt.CountedLoop stmt) {
+        return stmt.original.accept(this);
+    }
+}
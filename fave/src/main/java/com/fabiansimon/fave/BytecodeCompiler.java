@@ -0,0 +1,495 @@
+package com.fabiansimon.fave;
+
+import java.util.List;
+
+// Lowers resolved syntax trees into bytecode for the VM. Locals of a function
+// no closure captures live in stack slots of its frame; all others keep the
+// slot-indexed environments the Interpreter uses. The (depth, slot) addresses
+// the Resolver assigned count the frame as an environment, so the compiler
+// tracks which scopes have one and translates them.
+public class BytecodeCompiler implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+    // A scope the Resolver counts in depths: a function, an unflattened block
+    // or the 'super' scope of a class.
+    private static final class Scope {
+        final Scope enclosing;
+        // The locals are in the frame of the function being compiled rather
+        // than in an Environment.
+        final boolean frame;
+
+        Scope(Scope enclosing, boolean frame) {
+            this.enclosing = enclosing;
+            this.frame = frame;
+        }
+    }
+
+    private CompiledFunction function;
+    private Scope scope = null;
+    private Token token;
+
+    CompiledFunction compile(List<Stmt> statements) {
+        function = new CompiledFunction("script", 0, 0, false, false, true);
+        for (Stmt statement : statements) {
+            compile(statement);
+        }
+
+        emit(OpCode.NIL);
+        emit(OpCode.RETURN);
+        return function;
+    }
+
+    private void compile(Stmt statement) {
+        statement.accept(this);
+    }
+
+    private void compile(Expr expression) {
+        expression.accept(this);
+    }
+
+    private CompiledFunction compileFunction(Stmt.Function declaration, boolean isInitializer) {
+        CompiledFunction enclosing = function;
+        function = new CompiledFunction(declaration.name.lexeme, declaration.params.size(),
+                declaration.slots, isInitializer, declaration.isMethod, declaration.captured);
+        token = declaration.name;
+        beginScope(!declaration.captured);
+
+        for (Stmt statement : declaration.body) {
+            compile(statement);
+        }
+
+        emit(OpCode.NIL);
+        emit(OpCode.RETURN);
+
+        endScope();
+        CompiledFunction compiled = function;
+        function = enclosing;
+        return compiled;
+    }
+
+    private void beginScope(boolean frame) {
+        scope = new Scope(scope, frame);
+    }
+
+    private void endScope() {
+        scope = scope.enclosing;
+    }
+
+    // Environments to walk out through to reach the scope 'depth' scopes out,
+    // or -1 when that scope is the frame. Only the function being compiled
+    // can be it, since a closure reading a frame's locals would capture them.
+    private int environments(int depth) {
+        Scope target = scope;
+        int environments = 0;
+        for (int i = 0; i < depth; i++) {
+            if (!target.frame) environments++;
+            target = target.enclosing;
+        }
+
+        return target.frame ? -1 : environments;
+    }
+
+    private void emitGetLocal(int depth, int slot) {
+        int environments = environments(depth);
+        if (environments < 0) {
+            emit(OpCode.GET_SLOT, slot);
+        } else {
+            emit(OpCode.GET_LOCAL, environments, slot);
+        }
+    }
+
+    private void emit(int op) {
+        function.chunk.write(op, token);
+    }
+
+    private void emit(int op, int operand) {
+        emit(op);
+        emit(operand);
+    }
+
+    private void emit(int op, int first, int second) {
+        emit(op);
+        emit(first);
+        emit(second);
+    }
+
+    private int emitJump(int op) {
+        emit(op);
+        emit(0);
+        return function.chunk.count - 1;
+    }
+
+    private void patchJump(int operand) {
+        function.chunk.code[operand] = function.chunk.count - operand - 1;
+    }
+
+    private void emitLoop(int start) {
+        emit(OpCode.LOOP);
+        emit(function.chunk.count - start + 1);
+    }
+
+    private int constant(Object value) {
+        return function.chunk.addConstant(value);
+    }
+
+    private void emitDefine(Token name, int slot) {
+        token = name;
+        if (slot >= 0 && scope.frame) {
+            emit(OpCode.DEFINE_SLOT, slot);
+        } else if (slot >= 0) {
+            emit(OpCode.DEFINE_LOCAL, slot);
+        } else {
+            emit(OpCode.DEFINE_GLOBAL, constant(name.lexeme));
+        }
+    }
+
+    @Override
+    public Void visitAssignExpr(Expr.Assign expr) {
+        compile(expr.value);
+        token = expr.name;
+        if (expr.depth >= 0) {
+            int environments = environments(expr.depth);
+            if (environments < 0) {
+                emit(OpCode.SET_SLOT, expr.slot);
+            } else {
+                emit(OpCode.SET_LOCAL, environments, expr.slot);
+            }
+        } else {
+            emit(OpCode.SET_GLOBAL, constant(expr.name.lexeme));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        compile(expr.left);
+        compile(expr.right);
+        token = expr.operator;
+
+        switch (expr.operator.type) {
+            case GREATER: emit(OpCode.GREATER); break;
+            case GREATER_EQUAL: emit(OpCode.GREATER_EQUAL); break;
+            case LESS: emit(OpCode.LESS); break;
+            case LESS_EQUAL: emit(OpCode.LESS_EQUAL); break;
+            case MINUS: emit(OpCode.SUBTRACT); break;
+            case BANG_EQUAL: emit(OpCode.NOT_EQUAL); break;
+            case EQUAL_EQUAL: emit(OpCode.EQUAL); break;
+            case STAR: emit(OpCode.MULTIPLY); break;
+            case SLASH: emit(OpCode.DIVIDE); break;
+            case PLUS: emit(OpCode.ADD); break;
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitCallExpr(Expr.Call expr) {
+        compileCall(expr, OpCode.CALL);
+        return null;
+    }
+
+    private void compileCall(Expr.Call expr, int opCode) {
+        compile(expr.callee);
+        for (Expr argument : expr.arguments) {
+            compile(argument);
+        }
+
+        token = expr.paren;
+        emit(opCode, expr.arguments.size());
+    }
+
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        compile(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitGetExpr(Expr.Get expr) {
+        compile(expr.object);
+        token = expr.name;
+        emit(OpCode.GET_PROPERTY, function.chunk.addCache());
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        if (expr.value == null) {
+            emit(OpCode.NIL);
+        } else if (expr.value.equals(true)) {
+            emit(OpCode.TRUE);
+        } else if (expr.value.equals(false)) {
+            emit(OpCode.FALSE);
+        } else {
+            emit(OpCode.CONSTANT, constant(expr.value));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(Expr.Logical expr) {
+        compile(expr.left);
+        token = expr.operator;
+
+        if (expr.operator.type == TokenType.OR) {
+            int elseJump = emitJump(OpCode.JUMP_IF_FALSE);
+            int endJump = emitJump(OpCode.JUMP);
+            patchJump(elseJump);
+            emit(OpCode.POP);
+            compile(expr.right);
+            patchJump(endJump);
+        } else {
+            int endJump = emitJump(OpCode.JUMP_IF_FALSE);
+            emit(OpCode.POP);
+            compile(expr.right);
+            patchJump(endJump);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        compile(expr.right);
+        token = expr.operator;
+
+        switch (expr.operator.type) {
+            case BANG: emit(OpCode.NOT); break;
+            case MINUS: emit(OpCode.NEGATE); break;
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitSetExpr(Expr.Set expr) {
+        compile(expr.object);
+        compile(expr.value);
+        token = expr.name;
+        emit(OpCode.SET_PROPERTY, function.chunk.addCache());
+        return null;
+    }
+
+    @Override
+    public Void visitIndexExpr(Expr.Index expr) {
+        compile(expr.object);
+        compile(expr.index);
+        token = expr.bracket;
+        emit(OpCode.GET_INDEX);
+        return null;
+    }
+
+    @Override
+    public Void visitSetIndexExpr(Expr.SetIndex expr) {
+        compile(expr.object);
+        compile(expr.index);
+        compile(expr.value);
+        token = expr.bracket;
+        emit(OpCode.SET_INDEX);
+        return null;
+    }
+
+    @Override
+    public Void visitListLiteralExpr(Expr.ListLiteral expr) {
+        for (Expr element : expr.elements) {
+            compile(element);
+        }
+
+        token = expr.bracket;
+        emit(OpCode.LIST, expr.elements.size());
+        return null;
+    }
+
+    @Override
+    public Void visitMapLiteralExpr(Expr.MapLiteral expr) {
+        for (int i = 0; i < expr.keys.size(); i++) {
+            compile(expr.keys.get(i));
+            compile(expr.values.get(i));
+        }
+
+        token = expr.brace;
+        emit(OpCode.MAP, expr.keys.size());
+        return null;
+    }
+
+    @Override
+    public Void visitSuperExpr(Expr.Super expr) {
+        token = expr.keyword;
+        // 'this' lives in the method scope just inside the one holding 'super'.
+        emitGetLocal(expr.depth - 1, 0);
+        token = expr.method;
+        emit(OpCode.GET_SUPER, environments(expr.depth));
+        return null;
+    }
+
+    @Override
+    public Void visitThisExpr(Expr.This expr) {
+        token = expr.keyword;
+        emitGetLocal(expr.depth, expr.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        token = expr.name;
+        if (expr.depth >= 0) {
+            emitGetLocal(expr.depth, expr.slot);
+        } else {
+            emit(OpCode.GET_GLOBAL, constant(expr.name.lexeme));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        if (!stmt.flattened) {
+            emit(OpCode.PUSH_SCOPE, stmt.slots);
+            beginScope(false);
+        }
+        for (Stmt statement : stmt.statements) {
+            compile(statement);
+        }
+        if (!stmt.flattened) {
+            endScope();
+            emit(OpCode.POP_SCOPE);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitClassStmt(Stmt.Class stmt) {
+        token = stmt.name;
+        emit(OpCode.NIL);
+        emitDefine(stmt.name, stmt.slot);
+
+        if (stmt.superclass != null) {
+            compile(stmt.superclass);
+            emit(OpCode.INHERIT);
+            beginScope(false);
+        } else {
+            emit(OpCode.NIL);
+        }
+
+        token = stmt.name;
+        emit(OpCode.CLASS, constant(stmt.name.lexeme));
+
+        for (Stmt.Function method : stmt.methods) {
+            CompiledFunction compiled = compileFunction(method, method.name.lexeme.equals("init"));
+            token = method.name;
+            emit(OpCode.CLOSURE, constant(compiled));
+            emit(OpCode.METHOD, constant(method.name.symbol));
+        }
+
+        if (stmt.superclass != null) {
+            endScope();
+            emit(OpCode.POP_SCOPE);
+        }
+
+        emitDefine(stmt.name, stmt.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        compile(stmt.expression);
+        emit(OpCode.POP);
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionStmt(Stmt.Function stmt) {
+        CompiledFunction compiled = compileFunction(stmt, false);
+        token = stmt.name;
+        emit(OpCode.CLOSURE, constant(compiled));
+        emitDefine(stmt.name, stmt.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        compile(stmt.condition);
+        int thenJump = emitJump(OpCode.JUMP_IF_FALSE);
+        emit(OpCode.POP);
+        compile(stmt.thenBranch);
+
+        int elseJump = emitJump(OpCode.JUMP);
+        patchJump(thenJump);
+        emit(OpCode.POP);
+        if (stmt.elseBranch != null) compile(stmt.elseBranch);
+        patchJump(elseJump);
+        return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        compile(stmt.expression);
+        emit(OpCode.PRINT);
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStmt(Stmt.Return stmt) {
+        // The callee's frame takes over, so there is nothing to return from.
+        if (stmt.tailCall) {
+            compileCall((Expr.Call) stmt.value, OpCode.TAIL_CALL);
+            return null;
+        }
+
+        if (stmt.value != null) {
+            compile(stmt.value);
+        } else {
+            emit(OpCode.NIL);
+        }
+
+        token = stmt.keyword;
+        emit(OpCode.RETURN);
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        if (stmt.initializer != null) {
+            compile(stmt.initializer);
+        } else {
+            emit(OpCode.NIL);
+        }
+
+        emitDefine(stmt.name, stmt.slot);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        int loopStart = function.chunk.count;
+        compile(stmt.condition);
+
+        int exitJump = emitJump(OpCode.JUMP_IF_FALSE);
+        emit(OpCode.POP);
+        compile(stmt.body);
+        emitLoop(loopStart);
+
+        patchJump(exitJump);
+        emit(OpCode.POP);
+        return null;
+    }
+
+    // The VM has no specialised instructions for these; compile what they replace.
+    @Override
+    public Void visitLocalIncrementExpr(Expr.LocalIncrement expr) {
+        compile(expr.original);
+        return null;
+    }
+
+    @Override
+    public Void visitCompareLocalsExpr(Expr.CompareLocals expr) {
+        compile(expr.original);
+        return null;
+    }
+
+    @Override
+    public Void visitCompareLocalConstantExpr(Expr.CompareLocalConstant expr) {
+        compile(expr.original);
+        return null;
+    }
+
+    @Override
+    public Void visitCountedLoopStmt(Stmt.CountedLoop stmt) {
+        compile(stmt.original);
+        return null;
+    }
+}
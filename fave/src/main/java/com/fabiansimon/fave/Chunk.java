@@ -0,0 +1,49 @@
+package com.fabiansimon.fave;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class Chunk {
+    int[] code = new int[64];
+    // Source token of each instruction, for runtime error reporting.
+    Token[] tokens = new Token[64];
+    int count = 0;
+    final List<Object> constants = new ArrayList<>();
+    private final Map<Object, Integer> constantIndex = new HashMap<>();
+    // One per property access instruction.
+    final List<InlineCache> caches = new ArrayList<>();
+
+    int write(int value, Token token) {
+        if (count == code.length) {
+            code = Arrays.copyOf(code, count * 2);
+            tokens = Arrays.copyOf(tokens, count * 2);
+        }
+
+        code[count] = value;
+        tokens[count] = token;
+        return count++;
+    }
+
+    int addConstant(Object value) {
+        // Functions are compared by identity, everything else can be shared.
+        if (value instanceof CompiledFunction) {
+            constants.add(value);
+            return constants.size() - 1;
+        }
+
+        Integer index = constantIndex.get(value);
+        if (index != null) return index;
+
+        constants.add(value);
+        constantIndex.put(value, constants.size() - 1);
+        return constants.size() - 1;
+    }
+
+    int addCache() {
+        caches.add(new InlineCache());
+        return caches.size() - 1;
+    }
+}
@@ -0,0 +1,258 @@
+package com.fabiansimon.fave;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Just enough of the JVM class file format for JitCompiler: a final class with
+// static methods. Written as version 49 so the verifier infers types itself
+// and no stack map frames are needed.
+final class ClassFile {
+    private static final int VERSION = 49;
+
+    // Opcodes JitCompiler emits.
+    static final int DCONST_0 = 0x0e;
+    static final int DCONST_1 = 0x0f;
+    static final int LDC2_W = 0x14;
+    static final int DLOAD = 0x18;
+    static final int DSTORE = 0x39;
+    static final int POP2 = 0x58;
+    static final int DUP2 = 0x5c;
+    static final int DADD = 0x63;
+    static final int DSUB = 0x67;
+    static final int DMUL = 0x6b;
+    static final int DDIV = 0x6f;
+    static final int DNEG = 0x77;
+    static final int DCMPL = 0x97;
+    static final int DCMPG = 0x98;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9a;
+    static final int IFLT = 0x9b;
+    static final int IFGE = 0x9c;
+    static final int IFGT = 0x9d;
+    static final int IFLE = 0x9e;
+    static final int GOTO = 0xa7;
+    static final int DRETURN = 0xaf;
+    static final int GETSTATIC = 0xb2;
+    static final int INVOKESTATIC = 0xb8;
+    static final int ATHROW = 0xbf;
+    private static final int WIDE = 0xc4;
+
+    private final String name;
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> constants = new HashMap<>();
+    private int poolCount = 1;
+    private final int thisClass;
+    private final int superClass;
+    private final List<byte[]> methods = new ArrayList<>();
+
+    ClassFile(String name) {
+        this.name = name;
+        this.thisClass = classRef(name);
+        this.superClass = classRef("java/lang/Object");
+    }
+
+    int utf8(String value) {
+        return constant("U" + value, 1, out -> out.writeUTF(value), 1);
+    }
+
+    int classRef(String className) {
+        int nameIndex = utf8(className);
+        return constant("C" + className, 7, out -> out.writeShort(nameIndex), 1);
+    }
+
+    int methodRef(String owner, String method, String descriptor) {
+        return memberRef(10, owner, method, descriptor);
+    }
+
+    int fieldRef(String owner, String field, String descriptor) {
+        return memberRef(9, owner, field, descriptor);
+    }
+
+    int doubleConstant(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        // Doubles take up two pool entries.
+        return constant("D" + bits, 6, out -> out.writeLong(bits), 2);
+    }
+
+    private int memberRef(int tag, String owner, String member, String descriptor) {
+        int ownerIndex = owner.equals(name) ? thisClass : classRef(owner);
+        int nameIndex = utf8(member);
+        int typeIndex = utf8(descriptor);
+        int nameAndType = constant("N" + member + ":" + descriptor, 12, out -> {
+            out.writeShort(nameIndex);
+            out.writeShort(typeIndex);
+        }, 1);
+        return constant(tag + owner + "." + member + ":" + descriptor, tag, out -> {
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        }, 1);
+    }
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private int constant(String key, int tag, Writer writer, int size) {
+        Integer index = constants.get(key);
+        if (index != null) return index;
+
+        try {
+            poolOut.writeByte(tag);
+            writer.write(poolOut);
+        } catch (IOException error) {
+            throw new UncheckedIOException(error);
+        }
+
+        index = poolCount;
+        poolCount += size;
+        constants.put(key, index);
+        return index;
+    }
+
+    // Adds a public static method with the given body.
+    void method(String method, String descriptor, Code code) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeShort(0x0009); // public static
+            out.writeShort(utf8(method));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(1);
+
+            byte[] body = code.bytes();
+            out.writeShort(utf8("Code"));
+            out.writeInt(12 + body.length);
+            out.writeShort(code.maxStack);
+            out.writeShort(code.maxLocals);
+            out.writeInt(body.length);
+            out.write(body);
+            out.writeShort(0); // exception table
+            out.writeShort(0); // attributes
+        } catch (IOException error) {
+            throw new UncheckedIOException(error);
+        }
+        methods.add(bytes.toByteArray());
+    }
+
+    byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolCount);
+            pool.writeTo(out);
+            out.writeShort(0x0030); // final, super
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(0); // fields
+            out.writeShort(methods.size());
+            for (byte[] method : methods) out.write(method);
+            out.writeShort(0); // attributes
+        } catch (IOException error) {
+            throw new UncheckedIOException(error);
+        }
+        return bytes.toByteArray();
+    }
+
+    static final class Label {
+        private int position = -1;
+    }
+
+    // Bytecode of one method. Callers pass each instruction's effect on the
+    // operand stack, in slots, so the maximum depth comes out of emitting.
+    static final class Code {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // Branches to labels not marked yet: label, branch start, offset position.
+        private final List<Object[]> forward = new ArrayList<>();
+        private int stack = 0;
+        int maxStack = 0;
+        int maxLocals = 0;
+
+        int position() {
+            return out.size();
+        }
+
+        int stack() {
+            return stack;
+        }
+
+        // For code after an unconditional jump, return or throw.
+        void setStack(int depth) {
+            stack = depth;
+        }
+
+        void op(int opcode, int effect) {
+            out.write(opcode);
+            adjust(effect);
+        }
+
+        void op(int opcode, int operand, int effect) {
+            out.write(opcode);
+            u2(operand);
+            adjust(effect);
+        }
+
+        void local(int opcode, int index, int effect) {
+            if (index > 255) {
+                out.write(WIDE);
+                out.write(opcode);
+                u2(index);
+            } else {
+                out.write(opcode);
+                out.write(index);
+            }
+            maxLocals = Math.max(maxLocals, index + 2);
+            adjust(effect);
+        }
+
+        void jump(int opcode, Label target, int effect) {
+            int start = position();
+            out.write(opcode);
+            if (target.position >= 0) {
+                u2(target.position - start);
+            } else {
+                forward.add(new Object[] {target, start, position()});
+                u2(0);
+            }
+            adjust(effect);
+        }
+
+        void mark(Label label) {
+            label.position = position();
+        }
+
+        // Throws IllegalStateException for a method too long to branch across.
+        byte[] bytes() {
+            byte[] code = out.toByteArray();
+            if (code.length > Short.MAX_VALUE) throw new IllegalStateException("Method too long.");
+
+            for (Object[] branch : forward) {
+                int offset = ((Label) branch[0]).position - (int) branch[1];
+                int at = (int) branch[2];
+                code[at] = (byte) (offset >>> 8);
+                code[at + 1] = (byte) offset;
+            }
+            return code;
+        }
+
+        private void adjust(int effect) {
+            stack += effect;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        private void u2(int value) {
+            out.write(value >>> 8);
+            out.write(value);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.fabiansimon.fave;
+
+import java.util.List;
+
+// Natives for lists and maps:
+//
+//   len(value)             length of a list, map or string
+//   append(list, value)    adds value at the end of list
+//   keys(map)              list of the keys of map, in insertion order
+public class CollectionNatives {
+    static void defineNatives(Environment globals) {
+        globals.define("len", new NativeFunction(1) {
+            @Override
+            public Object call(Interpreter interpreter, List<Object> args) {
+                Object value = args.get(0);
+                if (value instanceof FaveList) return (double) ((FaveList) value).size();
+                if (value instanceof FaveMap) return (double) ((FaveMap) value).size();
+                if (Rope.isString(value)) return (double) ((CharSequence) value).length();
+
+                throw new RuntimeError(null, "Can only take the length of lists, maps and strings.");
+            }
+        });
+
+        globals.define("append", new NativeFunction(2) {
+            @Override
+            public Object call(Interpreter interpreter, List<Object> args) {
+                if (!(args.get(0) instanceof FaveList)) {
+                    throw new RuntimeError(null, "Can only append to lists.");
+                }
+
+                ((FaveList) args.get(0)).add(args.get(1));
+                return null;
+            }
+        });
+
+        globals.define("keys", new NativeFunction(1) {
+            @Override
+            public Object call(Interpreter interpreter, List<Object> args) {
+                if (!(args.get(0) instanceof FaveMap)) {
+                    throw new RuntimeError(null, "Can only list the keys of maps.");
+                }
+
+                return ((FaveMap) args.get(0)).keys();
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.fabiansimon.fave;
+
+// How sources are compiled. Immutable, so the command line and each embedder
+// hold their own and one never changes how the other's scripts compile.
+public final class CompileOptions {
+    // Optimised, eagerly parsed and not cached, as FaveEngine compiles by default.
+    public static final CompileOptions DEFAULT = new CompileOptions(true, false, false);
+
+    final boolean optimize;
+    final boolean lazy;
+    final boolean cache;
+
+    private CompileOptions(boolean optimize, boolean lazy, boolean cache) {
+        this.optimize = optimize;
+        this.lazy = lazy;
+        this.cache = cache;
+    }
+
+    // Whether trees go through the Optimizer, see 'fave --no-optimize'.
+    public CompileOptions withOptimize(boolean optimize) {
+        return new CompileOptions(optimize, lazy, cache);
+    }
+
+    // Whether top-level function bodies are parsed on first call, see 'fave --lazy'.
+    public CompileOptions withLazy(boolean lazy) {
+        return new CompileOptions(optimize, lazy, cache);
+    }
+
+    // Whether resolved trees are kept in the on-disk ScriptCache. Lazy
+    // compilation never uses the cache; writing a tree would parse every body.
+    public CompileOptions withCache(boolean cache) {
+        return new CompileOptions(optimize, lazy, cache);
+    }
+}
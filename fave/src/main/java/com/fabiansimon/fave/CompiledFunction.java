@@ -0,0 +1,28 @@
+package com.fabiansimon.fave;
+
+public class CompiledFunction {
+    final String name;
+    final int arity;
+    final int slots;
+    final boolean isInitializer;
+    final boolean isMethod;
+    // Locals live in an Environment, for closures to find them, instead of
+    // in the frame's stack slots.
+    final boolean captured;
+    final Chunk chunk = new Chunk();
+
+    CompiledFunction(String name, int arity, int slots, boolean isInitializer, boolean isMethod,
+                     boolean captured) {
+        this.name = name;
+        this.arity = arity;
+        this.slots = slots;
+        this.isInitializer = isInitializer;
+        this.isMethod = isMethod;
+        this.captured = captured;
+    }
+
+    @Override
+    public String toString() {
+        return "<fn " + name + ">";
+    }
+}
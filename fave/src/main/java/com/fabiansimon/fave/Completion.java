@@ -0,0 +1,8 @@
+package com.fabiansimon.fave;
+
+// How a statement finished executing. A RETURN carries its value in
+// Interpreter.returnValue so completing a statement never allocates.
+public enum Completion {
+    NORMAL,
+    RETURN
+}
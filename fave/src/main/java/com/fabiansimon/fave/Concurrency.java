@@ -0,0 +1,131 @@
+package com.fabiansimon.fave;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Natives for running Fave functions concurrently:
+//
+//   var f = spawn(fun);    runs fun() on another thread, returns a future
+//   await(f);              waits for it and returns what fun returned
+//   var ch = channel();    unbounded channel
+//   send(ch, value);       never blocks
+//   receive(ch);           blocks until a value is available
+//
+// A runtime error in a spawned function is raised again by await. Spawning,
+// awaiting and passing values through a channel order memory the same way as
+// the Java operations behind them; see Environment for variables shared
+// without them, and FaveInstance, FaveList and FaveMap for shared values.
+public class Concurrency {
+    // Each task gets its own Interpreter or VM, sharing the spawner's globals.
+    interface Runner {
+        Object run(Object function);
+    }
+
+    private static final Object NIL = new Object();
+
+    // Created on the first spawn, so scripts that never spawn don't pay for it.
+    private static class Pool {
+        static final ExecutorService INSTANCE = newExecutor();
+    }
+
+    private static class Future {
+        final CompletableFuture<Object> result;
+
+        Future(CompletableFuture<Object> result) {
+            this.result = result;
+        }
+
+        @Override
+        public String toString() {
+            return "<future>";
+        }
+    }
+
+    private static class Channel {
+        final BlockingQueue<Object> values = new LinkedBlockingQueue<>();
+
+        @Override
+        public String toString() {
+            return "<channel>";
+        }
+    }
+
+    static void defineNatives(Environment globals, Runner runner) {
+        globals.define("spawn", new NativeFunction(1) {
+            @Override
+            public Object call(Interpreter interpreter, List<Object> args) {
+                Object function = args.get(0);
+                return new Future(CompletableFuture.supplyAsync(() -> runner.run(function), Pool.INSTANCE));
+            }
+        });
+
+        globals.define("await", new NativeFunction(1) {
+            @Override
+            public Object call(Interpreter interpreter, List<Object> args) {
+                if (!(args.get(0) instanceof Future)) {
+                    throw new RuntimeError(null, "Can only await futures.");
+                }
+
+                try {
+                    return ((Future) args.get(0)).result.join();
+                } catch (CompletionException error) {
+                    if (error.getCause() instanceof RuntimeError) throw (RuntimeError) error.getCause();
+                    throw new RuntimeError(null, "Spawned function failed: " + error.getCause() + ".");
+                }
+            }
+        });
+
+        globals.define("channel", new NativeFunction(0) {
+            @Override
+            public Object call(Interpreter interpreter, List<Object> args) {
+                return new Channel();
+            }
+        });
+
+        globals.define("send", new NativeFunction(2) {
+            @Override
+            public Object call(Interpreter interpreter, List<Object> args) {
+                channel(args.get(0)).values.add(args.get(1) == null ? NIL : args.get(1));
+                return null;
+            }
+        });
+
+        globals.define("receive", new NativeFunction(1) {
+            @Override
+            public Object call(Interpreter interpreter, List<Object> args) {
+                Channel channel = channel(args.get(0));
+                try {
+                    Object value = channel.values.take();
+                    return value == NIL ? null : value;
+                } catch (InterruptedException error) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeError(null, "Interrupted while receiving.");
+                }
+            }
+        });
+    }
+
+    private static Channel channel(Object value) {
+        if (value instanceof Channel) return (Channel) value;
+        throw new RuntimeError(null, "Expect a channel.");
+    }
+
+    // Virtual threads when the JVM has them (21+), otherwise a pool of daemon
+    // threads; either way, running tasks don't keep the process alive.
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException error) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "fave-task");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
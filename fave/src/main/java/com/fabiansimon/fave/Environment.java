@@ -0,0 +1,152 @@
+package com.fabiansimon.fave;
+
+// Variables shared between threads started with spawn (see Concurrency) follow
+// the Java memory model: reads and writes never tear, but without a spawn,
+// await or channel in between, another thread may see a stale value. Globals
+// are defined under a lock, so defining one never corrupts the others.
+public class Environment {
+    // A global variable. Tables only ever grow into copies holding the same
+    // cells, so a store racing a resize still lands.
+    private static final class Global {
+        Object value;
+
+        Global(Object value) {
+            this.value = value;
+        }
+    }
+
+    // Open-addressed table of the globals of one environment, probing from
+    // the symbol's id. Names are added in place under the environment's
+    // lock, cell before key; a reader that sees a key without its cell, or
+    // misses a name, looks again under the lock.
+    private static final class Globals {
+        final Symbol[] keys;
+        final Global[] cells;
+        int size = 0;
+
+        Globals(int capacity) {
+            keys = new Symbol[capacity];
+            cells = new Global[capacity];
+        }
+
+        Global find(Symbol name) {
+            int mask = keys.length - 1;
+            for (int i = name.id & mask; ; i = (i + 1) & mask) {
+                Symbol key = keys[i];
+                if (key == name) return cells[i];
+                if (key == null) return null;
+            }
+        }
+
+        void add(Symbol name, Global global) {
+            int mask = keys.length - 1;
+            int i = name.id & mask;
+            while (keys[i] != null) i = (i + 1) & mask;
+            cells[i] = global;
+            keys[i] = name;
+            size++;
+        }
+    }
+
+    final Environment enclosing;
+    // Globals are late bound, so only the global environment is keyed by
+    // name. Each has a table of its own, so it holds only the names it
+    // defines and goes away with its interpreter.
+    private volatile Globals globals;
+    // Locals live in slots the Resolver assigned in declaration order.
+    private final Object[] slots;
+    // Length of the enclosing chain, for Metrics.
+    private final int depth;
+
+    Environment() {
+        enclosing = null;
+        globals = new Globals(64);
+        slots = null;
+        depth = 0;
+        if (Metrics.enabled) Metrics.environment(depth);
+    }
+
+    Environment(Environment enclosing, int size) {
+        // globals stays null; a volatile store here would slow every call.
+        this.enclosing = enclosing;
+        this.slots = new Object[size];
+        this.depth = enclosing.depth + 1;
+        if (Metrics.enabled) Metrics.environment(depth);
+    }
+
+    Object get(Token name) {
+        Global global = global(name.symbol);
+        if (global != null) return global.value;
+
+        throw new RuntimeError(name, "Undefined variable '" + name.lexeme + "'.");
+    }
+
+    // Returns null for undefined globals as well as nil ones.
+    Object lookup(Symbol name) {
+        Global global = global(name);
+        return global == null ? null : global.value;
+    }
+
+    void assign(Token name, Object value) {
+        Global global = global(name.symbol);
+        if (global != null) {
+            global.value = value;
+            return;
+        }
+
+        throw new RuntimeError(name, "Undefined variable '" + name.lexeme + "'.");
+    }
+
+    void define(String key, Object value) {
+        define(Symbol.intern(key), value);
+    }
+
+    synchronized void define(Symbol name, Object value) {
+        Globals table = globals;
+        Global global = table.find(name);
+        if (global != null) {
+            global.value = value;
+            return;
+        }
+
+        if ((table.size + 1) * 2 > table.keys.length) {
+            Globals grown = new Globals(table.keys.length * 2);
+            for (int i = 0; i < table.keys.length; i++) {
+                if (table.keys[i] != null) grown.add(table.keys[i], table.cells[i]);
+            }
+            table = grown;
+        }
+        table.add(name, new Global(value));
+        globals = table;
+    }
+
+    private Global global(Symbol name) {
+        Global global = globals.find(name);
+        if (global != null) return global;
+
+        synchronized (this) {
+            return globals.find(name);
+        }
+    }
+
+    void defineAt(int slot, Object value) {
+        slots[slot] = value;
+    }
+
+    Object getAt(int distance, int slot) {
+        return ancestor(distance).slots[slot];
+    }
+
+    void assignAt(int distance, int slot, Object value) {
+        ancestor(distance).slots[slot] = value;
+    }
+
+    Environment ancestor(int distance) {
+        Environment environment = this;
+        for (int i = 0; i < distance; i++) {
+            environment = environment.enclosing;
+        }
+
+        return environment;
+    }
+}
@@ -0,0 +1,66 @@
+package com.fabiansimon.fave;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// Collects the errors of one compilation unit, or one run of it. Each unit
+// gets its own reporter, so units can be compiled and run on separate threads
+// and their errors printed in order afterwards.
+public class ErrorReporter {
+    private final String source;
+    private final List<String> messages = new ArrayList<>();
+    private boolean hadError = false;
+    private boolean hadRuntimeError = false;
+
+    // Messages are prefixed with the source name, if there is one.
+    ErrorReporter(String source) {
+        this.source = source;
+    }
+
+    ErrorReporter() {
+        this(null);
+    }
+
+    boolean hadError() {
+        return hadError;
+    }
+
+    boolean hadRuntimeError() {
+        return hadRuntimeError;
+    }
+
+    List<String> messages() {
+        return new ArrayList<>(messages);
+    }
+
+    void error(int line, String message) {
+        report(line, "", message);
+    }
+
+    void error(Token token, String errorMessage) {
+        if (token.type == TokenType.EOF) {
+            report(token.line, " at end", errorMessage);
+        } else {
+            report(token.line, " at '" + token.lexeme + "'", errorMessage);
+        }
+    }
+
+    void report(int line, String location, String message) {
+        String prefix = source == null ? "" : source + ": ";
+        messages.add(prefix + "[line " + line + "] Error " + location + ": " + message);
+        hadError = true;
+    }
+
+    void runtimeError(RuntimeError error) {
+        String prefix = source == null ? "" : source + ": ";
+        messages.add(prefix + error.getMessage() + "\n[line " + error.token.line + "]");
+        hadRuntimeError = true;
+    }
+
+    // Prints and forgets the messages collected so far.
+    void flush(PrintStream out) {
+        for (String message : messages) out.println(message);
+        messages.clear();
+    }
+}
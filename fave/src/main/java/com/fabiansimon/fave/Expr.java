@@ -1,3 +1,5 @@
+package com.fabiansimon.fave;
+
 import java.util.List;
 
 abstract class Expr {
@@ -7,13 +9,20 @@ abstract class Expr {
     R visitCallExpr(Call expr);
     R visitGroupingExpr(Grouping expr);
     R visitGetExpr(Get expr);
+    R visitIndexExpr(Index expr);
+    R visitListLiteralExpr(ListLiteral expr);
     R visitLiteralExpr(Literal expr);
     R visitLogicalExpr(Logical expr);
+    R visitMapLiteralExpr(MapLiteral expr);
     R visitUnaryExpr(Unary expr);
     R visitSetExpr(Set expr);
+    R visitSetIndexExpr(SetIndex expr);
     R visitSuperExpr(Super expr);
     R visitThisExpr(This expr);
     R visitVariableExpr(Variable expr);
+    R visitLocalIncrementExpr(LocalIncrement expr);
+    R visitCompareLocalsExpr(CompareLocals expr);
+    R visitCompareLocalConstantExpr(CompareLocalConstant expr);
   }
 
   static class Assign extends Expr {
@@ -29,6 +38,8 @@ abstract class Expr {
 
     final Token name;
     final Expr value;
+    int depth = -1;
+    int slot = -1;
   }
 
   static class Binary extends Expr {
@@ -91,6 +102,39 @@ abstract class Expr {
 
     final Expr object;
     final Token name;
+    InlineCache cache = new InlineCache();
+  }
+
+  static class Index extends Expr {
+    Index(Expr object, Token bracket, Expr index) {
+      this.object = object;
+      this.bracket = bracket;
+      this.index = index;
+    }
+
+    @Override
+    <R> R accept(Visitor<R> visitor) {
+      return visitor.visitIndexExpr(this);
+    }
+
+    final Expr object;
+    final Token bracket;
+    final Expr index;
+  }
+
+  static class ListLiteral extends Expr {
+    ListLiteral(Token bracket, List<Expr> elements) {
+      this.bracket = bracket;
+      this.elements = elements;
+    }
+
+    @Override
+    <R> R accept(Visitor<R> visitor) {
+      return visitor.visitListLiteralExpr(this);
+    }
+
+    final Token bracket;
+    final List<Expr> elements;
   }
 
   static class Literal extends Expr {
@@ -123,6 +167,23 @@ abstract class Expr {
     final Expr right;
   }
 
+  static class MapLiteral extends Expr {
+    MapLiteral(Token brace, List<Expr> keys, List<Expr> values) {
+      this.brace = brace;
+      this.keys = keys;
+      this.values = values;
+    }
+
+    @Override
+    <R> R accept(Visitor<R> visitor) {
+      return visitor.visitMapLiteralExpr(this);
+    }
+
+    final Token brace;
+    final List<Expr> keys;
+    final List<Expr> values;
+  }
+
   static class Unary extends Expr {
     Unary(Token operator, Expr right) {
       this.operator = operator;
@@ -153,6 +214,26 @@ abstract class Expr {
     final Expr object;
     final Token name;
     final Expr value;
+    InlineCache cache = new InlineCache();
+  }
+
+  static class SetIndex extends Expr {
+    SetIndex(Expr object, Token bracket, Expr index, Expr value) {
+      this.object = object;
+      this.bracket = bracket;
+      this.index = index;
+      this.value = value;
+    }
+
+    @Override
+    <R> R accept(Visitor<R> visitor) {
+      return visitor.visitSetIndexExpr(this);
+    }
+
+    final Expr object;
+    final Token bracket;
+    final Expr index;
+    final Expr value;
   }
 
   static class Super extends Expr {
@@ -168,6 +249,8 @@ abstract class Expr {
 
     final Token keyword;
     final Token method;
+    int depth = -1;
+    SuperCache cache = null;
   }
 
   static class This extends Expr {
@@ -181,6 +264,8 @@ abstract class Expr {
     }
 
     final Token keyword;
+    int depth = -1;
+    int slot = -1;
   }
 
   static class Variable extends Expr {
@@ -194,7 +279,70 @@ abstract class Expr {
     }
 
     final Token name;
+    int depth = -1;
+    int slot = -1;
+  }
+
+  static class LocalIncrement extends Expr {
+    LocalIncrement(Assign original, int depth, int slot, double amount) {
+      this.original = original;
+      this.depth = depth;
+      this.slot = slot;
+      this.amount = amount;
+    }
+
+    @Override
+    <R> R accept(Visitor<R> visitor) {
+      return visitor.visitLocalIncrementExpr(this);
+    }
+
+    final Assign original;
+    final int depth;
+    final int slot;
+    final double amount;
+  }
+
+  static class CompareLocals extends Expr {
+    CompareLocals(Binary original, int leftDepth, int leftSlot, int rightDepth, int rightSlot) {
+      this.original = original;
+      this.leftDepth = leftDepth;
+      this.leftSlot = leftSlot;
+      this.rightDepth = rightDepth;
+      this.rightSlot = rightSlot;
+    }
+
+    @Override
+    <R> R accept(Visitor<R> visitor) {
+      return visitor.visitCompareLocalsExpr(this);
+    }
+
+    final Binary original;
+    final int leftDepth;
+    final int leftSlot;
+    final int rightDepth;
+    final int rightSlot;
+  }
+
+  static class CompareLocalConstant extends Expr {
+    CompareLocalConstant(Binary original, int depth, int slot, double constant) {
+      this.original = original;
+      this.depth = depth;
+      this.slot = slot;
+      this.constant = constant;
+    }
+
+    @Override
+    <R> R accept(Visitor<R> visitor) {
+      return visitor.visitCompareLocalConstantExpr(this);
+    }
+
+    final Binary original;
+    final int depth;
+    final int slot;
+    final double constant;
   }
 
   abstract <R> R accept(Visitor<R> visitor);
+
+  boolean numeric = false;
 }
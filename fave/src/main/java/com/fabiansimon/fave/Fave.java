@@ -0,0 +1,289 @@
+package com.fabiansimon.fave;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+public class Fave {
+    private static final Interpreter interpreter = new Interpreter();
+    private static final VM vm = new VM();
+    static boolean useVm = false;
+    static boolean profile = false;
+    // Where --profile writes collapsed stacks; null until the scripts are known.
+    static Path profileOutput = null;
+    static boolean stats = false;
+    static boolean optimize = true;
+    static boolean cache = true;
+    static boolean lazy = false;
+    // Built from the flags above once they are parsed.
+    private static CompileOptions options;
+    static boolean hadError = false;
+    static boolean hadRuntimeError = false;
+    public static void main(String[] args) throws IOException {
+        /*
+        Expr expression = new Expr.Binary(
+                new Expr.Unary(
+                        new Token(TokenType.MINUS, "-", null, 1),
+                        new Expr.Literal(123)
+                ),
+                new Token(TokenType.STAR, "*", null, 1),
+                new Expr.Grouping(
+                        new Expr.Literal("45.67")
+                )
+            );
+
+        Expr simpleExpression = new Expr.Binary(
+                new Expr.Binary(
+                        new Expr.Literal(1),
+                        new Token(TokenType.PLUS, "+", null, 1),
+                        new Expr.Literal(2)
+                ),
+                new Token(TokenType.STAR, "*", null, 1),
+                new Expr.Binary(
+                        new Expr.Literal(4),
+                        new Token(TokenType.MINUS, "-", null, 1),
+                        new Expr.Literal(3)
+                )
+        );
+        */
+
+        List<String> scripts = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--vm")) {
+                useVm = true;
+            } else if (arg.equals("--profile")) {
+                profile = true;
+            } else if (arg.startsWith("--profile=")) {
+                profile = true;
+                profileOutput = Paths.get(arg.substring("--profile=".length()));
+            } else if (arg.equals("--no-optimize")) {
+                optimize = false;
+            } else if (arg.equals("--no-cache")) {
+                cache = false;
+            } else if (arg.equals("--stats")) {
+                stats = true;
+            } else if (arg.equals("--lazy")) {
+                lazy = true;
+            } else if (arg.equals("--no-jit")) {
+                Jit.enabled = false;
+            } else if (arg.startsWith("--")) {
+                usage();
+            } else {
+                scripts.add(arg);
+            }
+        }
+
+        // The profiler instruments the tree-walking interpreter only.
+        if (profile && useVm) usage();
+        // Lazy bodies are parsed by the function that runs them, which the VM never calls.
+        if (lazy && useVm) usage();
+        if (profile) interpreter.profiler = new Profiler();
+        if (stats) Metrics.enable();
+        options = CompileOptions.DEFAULT.withOptimize(optimize).withLazy(lazy).withCache(cache);
+
+        if (!scripts.isEmpty()) {
+            runFiles(scripts);
+        } else {
+            runPrompt();
+        }
+    }
+
+    private static void usage() {
+        System.out.println("Usage: fave [--vm | --profile[=file] | --lazy] [--no-optimize] [--no-cache] [--no-jit] [--stats] [script | directory ...]");
+        System.exit(64);
+    }
+
+    // Prints the profile summary and writes collapsed stacks for flame graphs.
+    private static void writeProfile() throws IOException {
+        Profiler profiler = interpreter.profiler;
+        profiler.finish();
+        profiler.report(System.err);
+
+        Path folded = profileOutput != null ? profileOutput : Paths.get("profile.folded");
+        profiler.writeCollapsed(folded);
+        System.err.println("\nCollapsed stacks written to " + folded.toAbsolutePath());
+    }
+
+    // Next to the first script, named after it, or inside the directory given.
+    private static Path defaultProfileOutput(Path script) {
+        if (Files.isDirectory(script)) return script.resolve("profile.folded");
+
+        String name = script.getFileName().toString();
+        if (name.endsWith(".fave")) name = name.substring(0, name.length() - ".fave".length());
+        return script.resolveSibling(name + ".folded");
+    }
+
+    // Compiles every script, and every .fave file under a directory, in
+    // parallel, then runs them in order on the same globals. Nothing runs if
+    // any of them has a compile error.
+    private static void runFiles(List<String> paths) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String path : paths) collectScripts(Paths.get(path), files);
+        if (profile && profileOutput == null) profileOutput = defaultProfileOutput(Paths.get(paths.get(0)));
+
+        boolean named = files.size() > 1;
+        List<ErrorReporter> reporters = new ArrayList<>();
+        List<Callable<List<Stmt>>> units = new ArrayList<>();
+        for (Path file : files) {
+            ErrorReporter reporter = new ErrorReporter(named ? file.toString() : null);
+            reporters.add(reporter);
+            units.add(() -> load(file, reporter));
+        }
+
+        List<List<Stmt>> programs = new ArrayList<>();
+        if (units.size() == 1) {
+            programs.add(load(files.get(0), reporters.get(0)));
+        } else {
+            for (Future<List<Stmt>> unit : ForkJoinPool.commonPool().invokeAll(units)) {
+                programs.add(join(unit));
+            }
+        }
+
+        for (ErrorReporter reporter : reporters) {
+            reporter.flush(System.err);
+            if (reporter.hadError()) hadError = true;
+        }
+
+        for (int i = 0; i < programs.size() && !hadError && !hadRuntimeError; i++) {
+            execute(programs.get(i), reporters.get(i));
+        }
+        if (profile) writeProfile();
+        if (stats) System.err.println(Metrics.toJson());
+
+        if (hadError) System.exit(65);
+        if (hadRuntimeError) System.exit(70);
+    }
+
+    private static void collectScripts(Path path, List<Path> files) throws IOException {
+        if (!Files.isDirectory(path)) {
+            files.add(path);
+            return;
+        }
+
+        try (Stream<Path> walk = Files.walk(path)) {
+            walk.filter(file -> file.toString().endsWith(".fave") && Files.isRegularFile(file))
+                .sorted()
+                .forEach(files::add);
+        }
+    }
+
+    private static List<Stmt> join(Future<List<Stmt>> unit) throws IOException {
+        try {
+            return unit.get();
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+            throw new IOException(error);
+        } catch (ExecutionException error) {
+            if (error.getCause() instanceof IOException) throw (IOException) error.getCause();
+            if (error.getCause() instanceof RuntimeException) throw (RuntimeException) error.getCause();
+            throw new IOException(error.getCause());
+        }
+    }
+
+    // Runs on any thread; everything it touches belongs to this one unit.
+    private static List<Stmt> load(Path path, ErrorReporter reporter) throws IOException {
+        MappedByteBuffer bytes = map(path);
+        return compile(bytes, () -> decode(bytes), reporter, options);
+    }
+
+    // Compiles the source, whose encoded form is bytes, going through the
+    // script cache if the options allow. The source is only asked for on a
+    // miss. Returns null if the source has errors.
+    static List<Stmt> compile(ByteBuffer bytes, Supplier<CharSequence> source, ErrorReporter reporter,
+                              CompileOptions options) {
+        if (!options.cache || options.lazy) return compile(source.get(), reporter, options);
+
+        // Unchanged scripts skip scanning, parsing and resolving.
+        ScriptCache scripts = ScriptCache.open();
+        String key = scripts.key(bytes, options.optimize);
+        List<Stmt> statements = scripts.load(key);
+        if (statements == null) {
+            statements = compile(source.get(), reporter, options);
+            if (statements != null) scripts.store(key, statements);
+        }
+        return statements;
+    }
+
+    // Maps the file instead of reading it onto the heap.
+    private static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // ASCII sources are scanned straight from the mapping; anything else is decoded once.
+    private static CharSequence decode(MappedByteBuffer bytes) {
+        if (AsciiSource.isAscii(bytes)) return new AsciiSource(bytes);
+        return Charset.defaultCharset().decode(bytes.duplicate());
+    }
+
+    private static void runPrompt() throws IOException {
+        InputStreamReader input = new InputStreamReader(System.in);
+        BufferedReader reader = new BufferedReader(input);
+
+        while (true) {
+            System.out.print("> ");
+            String line = reader.readLine();
+            if (line == null) break;
+            run(line);
+        }
+
+        if (profile) writeProfile();
+        if (stats) System.err.println(Metrics.toJson());
+    }
+
+    private static void run(CharSequence src) {
+        ErrorReporter reporter = new ErrorReporter();
+        List<Stmt> statements = compile(src, reporter, options);
+        reporter.flush(System.err);
+        if (statements != null) execute(statements, reporter);
+    }
+
+    // Returns null if the source has errors. Safe to call from any thread.
+    static List<Stmt> compile(CharSequence src, ErrorReporter reporter, CompileOptions options) {
+        // Lazy bodies stay in the buffer; otherwise the Parser takes tokens as they are scanned.
+        Scanner scanner = new Scanner(src, reporter);
+        Parser parser = options.lazy
+            ? new Parser(scanner.scanBuffer(), reporter).lazy()
+            : new Parser(scanner, reporter);
+        List<Stmt> statements = parser.parse();
+
+        if (reporter.hadError()) return null;
+
+        Resolver resolver = new Resolver(reporter);
+        resolver.resolve(statements);
+
+        if (reporter.hadError()) return null; // stop if there was a resolution error
+
+        if (options.optimize) statements = new Optimizer().optimize(statements);
+        return statements;
+    }
+
+    private static void execute(List<Stmt> statements, ErrorReporter reporter) {
+        if (useVm) {
+            vm.interpret(new BytecodeCompiler().compile(statements), reporter);
+        } else {
+            if (optimize) statements = new Specializer().specialize(statements);
+            interpreter.interpret(statements, reporter);
+        }
+
+        reporter.flush(System.err);
+        if (reporter.hadRuntimeError()) hadRuntimeError = true;
+    }
+}
@@ -1,3 +1,5 @@
+package com.fabiansimon.fave;
+
 import java.util.List;
 
 public interface FaveCallable {
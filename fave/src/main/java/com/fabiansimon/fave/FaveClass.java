@@ -0,0 +1,50 @@
+package com.fabiansimon.fave;
+
+import java.util.List;
+
+public class FaveClass implements FaveCallable {
+    final String name;
+    final FaveClass superclass;
+    // Own methods over the superclass's table, which already holds its
+    // inherited ones, so a lookup is one probe however deep the hierarchy.
+    // Never changed after the constructor.
+    private final SymbolMap<FaveFunction> methods;
+    private final FaveFunction initializer;
+    // Instances start out with no fields; the shapes they grow into hang off this one.
+    final Shape rootShape = new Shape();
+
+    public FaveClass(String name, SymbolMap<FaveFunction> methods, FaveClass superclass) {
+        this.superclass = superclass;
+        this.name = name;
+        this.methods = superclass == null ? new SymbolMap<>() : new SymbolMap<>(superclass.methods);
+        methods.forEach(this.methods::put);
+        this.initializer = this.methods.get(Symbol.INIT);
+    }
+
+    FaveFunction findMethod(Symbol name) {
+        return methods.get(name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    @Override
+    public int arity() {
+        if (initializer == null) return 0;
+
+        return initializer.arity();
+    }
+
+    @Override
+    public Object call(Interpreter interpreter, List<Object> args) {
+        FaveInstance instance = new FaveInstance(this);
+
+        if (initializer != null) {
+            initializer.invoke(interpreter, instance, args);
+        }
+
+        return instance;
+    }
+}
@@ -0,0 +1,36 @@
+package com.fabiansimon.fave;
+
+import java.io.PrintStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+// An isolated interpreter with its own globals, created by FaveEngine.
+// Scripts run in a context see what earlier scripts in it defined, and nothing
+// from other contexts. A context runs one script at a time; different contexts
+// run concurrently.
+public class FaveContext {
+    private final Interpreter interpreter;
+
+    FaveContext(PrintStream out) {
+        this.interpreter = new Interpreter(out);
+    }
+
+    public synchronized void run(Script script) throws ScriptException {
+        ErrorReporter reporter = new ErrorReporter(script.name);
+        interpreter.interpret(script.statements, reporter);
+        if (reporter.hadRuntimeError()) throw new ScriptException(reporter.messages());
+    }
+
+    // Runs the script on the given executor, e.g. a pool shared by many
+    // contexts. A failed run completes the future with the ScriptException.
+    public CompletableFuture<Void> runAsync(Script script, Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                run(script);
+            } catch (ScriptException error) {
+                throw new CompletionException(error);
+            }
+        }, executor);
+    }
+}
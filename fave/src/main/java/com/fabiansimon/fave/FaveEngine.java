@@ -0,0 +1,47 @@
+package com.fabiansimon.fave;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Entry point for embedding Fave in a host application. The engine compiles
+// sources into Scripts and creates the contexts that run them. An engine holds
+// no mutable state, so it can be shared by all threads of the host.
+public class FaveEngine {
+    private final CompileOptions options;
+
+    public FaveEngine() {
+        this(CompileOptions.DEFAULT);
+    }
+
+    // Whether compiled scripts go through the Optimizer, see 'fave --no-optimize'.
+    public FaveEngine(boolean optimize) {
+        this(CompileOptions.DEFAULT.withOptimize(optimize));
+    }
+
+    public FaveEngine(CompileOptions options) {
+        this.options = options;
+    }
+
+    public Script compile(String name, CharSequence source) throws ScriptException {
+        ErrorReporter reporter = new ErrorReporter(name);
+        ByteBuffer bytes = options.cache ? StandardCharsets.UTF_8.encode(CharBuffer.wrap(source)) : null;
+        List<Stmt> statements = Fave.compile(bytes, () -> source, reporter, options);
+        if (statements == null) throw new ScriptException(reporter.messages());
+
+        // Contexts run scripts on the Interpreter, so they can be specialised for it.
+        if (options.optimize) statements = new Specializer().specialize(statements);
+        return new Script(name, statements);
+    }
+
+    public FaveContext newContext() {
+        return new FaveContext(System.out);
+    }
+
+    // Output of print statements goes to the given stream.
+    public FaveContext newContext(PrintStream out) {
+        return new FaveContext(out);
+    }
+}
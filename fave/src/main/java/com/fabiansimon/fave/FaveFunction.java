@@ -0,0 +1,108 @@
+package com.fabiansimon.fave;
+
+import java.util.List;
+
+public class FaveFunction implements FaveCallable {
+    private final Stmt.Function declaration;
+    private final Environment closure;
+    private final boolean isInitializer;
+    // Instance a method was bound to when it was read as a value.
+    private final FaveInstance receiver;
+
+    public FaveFunction(Stmt.Function declaration, Environment closure, boolean isInitializer) {
+        this(declaration, closure, isInitializer, null);
+    }
+
+    private FaveFunction(Stmt.Function declaration, Environment closure, boolean isInitializer,
+                         FaveInstance receiver) {
+        this.declaration = declaration;
+        this.closure = closure;
+        this.isInitializer = isInitializer;
+        this.receiver = receiver;
+    }
+
+    // A call in tail position, returned instead of made so that invoke can
+    // make it without growing the Java stack.
+    static class TailCall {
+        final FaveFunction function;
+        final FaveInstance receiver;
+        final List<Object> args;
+
+        TailCall(FaveFunction function, FaveInstance receiver, List<Object> args) {
+            this.function = function;
+            this.receiver = receiver;
+            this.args = args;
+        }
+    }
+
+    FaveFunction bind(FaveInstance instance) {
+        if (Metrics.enabled) Metrics.BOUND_METHODS.increment();
+        return new FaveFunction(declaration, closure, isInitializer, instance);
+    }
+
+    @Override
+    public String toString() {
+        return "<fn " + declaration.name.lexeme + ">";
+    }
+
+    @Override
+    public int arity() {
+        return declaration.params.size();
+    }
+
+    @Override
+    public Object call(Interpreter interpreter, List<Object> args) {
+        return invoke(interpreter, receiver, args);
+    }
+
+    TailCall tailCall(List<Object> args) {
+        return new TailCall(this, receiver, args);
+    }
+
+    // Calls the function with an explicit receiver, so method calls don't
+    // have to materialise a bound FaveFunction first. Tail calls made by the
+    // body are run here, one after the other.
+    Object invoke(Interpreter interpreter, FaveInstance receiver, List<Object> args) {
+        FaveFunction function = this;
+        while (true) {
+            Object result = function.execute(interpreter, receiver, args);
+            if (!(result instanceof TailCall)) return result;
+
+            TailCall call = (TailCall) result;
+            function = call.function;
+            receiver = call.receiver;
+            args = call.args;
+        }
+    }
+
+    private Object execute(Interpreter interpreter, FaveInstance receiver, List<Object> args) {
+        if (declaration.lazy != null) declaration.lazy.load(declaration);
+
+        // Hot functions may run compiled; profiles only count interpreted code.
+        if (interpreter.profiler == null) {
+            Object result = Jit.run(declaration, this, interpreter.globals, args);
+            if (result != Jit.INTERPRET) return result;
+        }
+
+        Environment environment = new Environment(closure, declaration.slots);
+        int first = 0;
+        if (declaration.isMethod) {
+            environment.defineAt(0, receiver);
+            first = 1;
+        }
+        for (int i = 0; i < declaration.params.size(); i++) {
+            environment.defineAt(first + i, args.get(i));
+        }
+
+        Profiler profiler = interpreter.profiler;
+        if (profiler != null) profiler.enter(declaration);
+
+        Completion completion = interpreter.executeBlock(declaration.body, environment);
+        Object returnValue = completion == Completion.RETURN ? interpreter.takeReturnValue() : null;
+
+        if (profiler != null) profiler.exit();
+
+        if (isInitializer) return receiver;
+        return returnValue;
+    }
+}
@@ -0,0 +1,106 @@
+package com.fabiansimon.fave;
+
+import java.util.Arrays;
+
+// Instances may be shared between threads started with spawn (see
+// Concurrency). Writes to one instance take its lock, so two threads adding
+// fields at once never lose one. Reads take no lock: a read sees either the
+// old or the new value of a field, and never a Shape ahead of its fields,
+// since a new field is stored, growing fields if needed, before the Shape
+// holding it is published.
+public class FaveInstance {
+    private final FaveClass fClass;
+    private volatile Shape shape;
+    private Object[] fields = new Object[4];
+
+    FaveInstance(FaveClass fClass) {
+        this.fClass = fClass;
+        this.shape = fClass.rootShape;
+        if (Metrics.enabled) Metrics.INSTANCES.increment();
+    }
+
+    // Reads the shape before fields, so fields holds every field it has.
+    Object get(Token name, InlineCache cache) {
+        Shape shape = this.shape;
+        InlineCache.Entry entry = cache.find(shape);
+        if (entry != null) {
+            if (entry.slot >= 0) return fields[entry.slot];
+            return entry.method.bind(this);
+        }
+
+        int slot = shape.indexOf(name.symbol);
+        if (slot >= 0) {
+            cache.add(shape, slot, null, null);
+            return fields[slot];
+        }
+
+        FaveFunction method = fClass.findMethod(name.symbol);
+        if (method != null) {
+            cache.add(shape, -1, method, null);
+            return method.bind(this);
+        }
+
+        throw new RuntimeError(name, "Undefined property '" + name.lexeme + "'.");
+    }
+
+    // Looks up a method for a call site that invokes it directly. Returns null
+    // when a field of that name exists, which get then returns instead.
+    FaveFunction getMethod(Token name, InlineCache cache) {
+        Shape shape = this.shape;
+        InlineCache.Entry entry = cache.find(shape);
+        if (entry != null) return entry.method;
+
+        int slot = shape.indexOf(name.symbol);
+        if (slot >= 0) {
+            cache.add(shape, slot, null, null);
+            return null;
+        }
+
+        FaveFunction method = fClass.findMethod(name.symbol);
+        if (method != null) {
+            cache.add(shape, -1, method, null);
+            return method;
+        }
+
+        throw new RuntimeError(name, "Undefined property '" + name.lexeme + "'.");
+    }
+
+    synchronized void set(Token name, Object value, InlineCache cache) {
+        Shape shape = this.shape;
+        InlineCache.Entry entry = cache.find(shape);
+        if (entry != null) {
+            if (entry.transition != null) {
+                add(entry.transition, value);
+            } else {
+                fields[entry.slot] = value;
+            }
+            return;
+        }
+
+        int slot = shape.indexOf(name.symbol);
+        if (slot >= 0) {
+            cache.add(shape, slot, null, null);
+            fields[slot] = value;
+            return;
+        }
+
+        Shape next = shape.withField(name.symbol);
+        cache.add(shape, next.size - 1, null, next);
+        add(next, value);
+    }
+
+    // Moves to a shape with one more field holding value. Stores fields and
+    // the value before the volatile shape, see get.
+    private void add(Shape next, Object value) {
+        if (next.size > fields.length) {
+            fields = Arrays.copyOf(fields, fields.length * 2);
+        }
+        fields[next.size - 1] = value;
+        shape = next;
+    }
+
+    @Override
+    public String toString() {
+        return fClass.name + " instance";
+    }
+}
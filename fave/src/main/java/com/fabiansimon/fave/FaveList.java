@@ -0,0 +1,128 @@
+package com.fabiansimon.fave;
+
+import java.util.Arrays;
+
+// Growable list value. A list holding only numbers keeps them unboxed in a
+// double[]; the first non-number stored in it moves the list to an Object[]
+// for good.
+//
+// Lists may be shared between threads started with spawn (see Concurrency).
+// Writes take the list's lock, so appends and the move to an Object[] are
+// never lost. Reads take no lock and see either the old or the new value of
+// an element: a store to size is only made after the array it counts is
+// published, and the Object[] is published before the double[] it replaces
+// is dropped.
+// Elements only ever get added, so an index checked against size() stays
+// valid.
+public class FaveList {
+    private volatile double[] numbers;
+    private volatile Object[] objects = null;
+    private volatile int size = 0;
+
+    FaveList(int capacity) {
+        numbers = new double[Math.max(capacity, 8)];
+    }
+
+    FaveList() {
+        this(8);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isNumeric() {
+        return numbers != null;
+    }
+
+    // Read size() before the element, see the class comment.
+    Object get(int index) {
+        double[] numbers = this.numbers;
+        if (numbers != null) return numbers[index];
+        return objects[index];
+    }
+
+    // The unboxed elements, or null once the list holds other values. Stores
+    // made after the list grows or holds a non-number don't show in the
+    // array returned, like any stale read.
+    double[] numbers() {
+        return numbers;
+    }
+
+    synchronized void set(int index, Object value) {
+        if (numbers != null && value instanceof Double) {
+            numbers[index] = (double) value;
+            return;
+        }
+
+        generalize();
+        objects[index] = value;
+    }
+
+    synchronized void setDouble(int index, double value) {
+        if (numbers == null) {
+            objects[index] = value;
+            return;
+        }
+
+        numbers[index] = value;
+    }
+
+    synchronized void add(Object value) {
+        if (numbers != null && value instanceof Double) {
+            addDouble((double) value);
+            return;
+        }
+
+        generalize();
+        Object[] objects = this.objects;
+        if (size == objects.length) this.objects = objects = Arrays.copyOf(objects, size * 2);
+        objects[size] = value;
+        size++;
+    }
+
+    synchronized void addDouble(double value) {
+        if (numbers == null) {
+            add(value);
+            return;
+        }
+
+        double[] numbers = this.numbers;
+        if (size == numbers.length) this.numbers = numbers = Arrays.copyOf(numbers, size * 2);
+        numbers[size] = value;
+        size++;
+    }
+
+    private void generalize() {
+        if (numbers == null) return;
+
+        Object[] objects = new Object[numbers.length];
+        for (int i = 0; i < size; i++) objects[i] = numbers[i];
+        this.objects = objects;
+        numbers = null;
+    }
+
+    // Copies the elements first, so no lock is held while stringifying them.
+    synchronized Object[] toArray() {
+        Object[] elements = new Object[size];
+        for (int i = 0; i < size; i++) elements[i] = get(i);
+        return elements;
+    }
+
+    @Override
+    public String toString() {
+        if (!Interpreter.enterStringify(this)) return "[...]";
+        try {
+            Object[] elements = toArray();
+            StringBuilder text = new StringBuilder("[");
+            for (int i = 0; i < elements.length; i++) {
+                if (i > 0) text.append(", ");
+                text.append(Interpreter.stringify(elements[i]));
+            }
+
+            return text.append("]").toString();
+        } finally {
+            Interpreter.exitStringify(this);
+        }
+    }
+}
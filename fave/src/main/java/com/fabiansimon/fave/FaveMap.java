@@ -0,0 +1,67 @@
+package com.fabiansimon.fave;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Map value with any Fave value as key. Numbers and strings compare by value,
+// instances and other objects by identity. Iterates in insertion order. Rope
+// keys are flattened, so they find the same entry as an equal String.
+//
+// Maps may be shared between threads started with spawn (see Concurrency).
+// Every operation takes the map's lock, so concurrent puts never corrupt it.
+public class FaveMap {
+    private final Map<Object, Object> entries = new LinkedHashMap<>();
+
+    // Missing keys read as nil.
+    synchronized Object get(Object key) {
+        return entries.get(key(key));
+    }
+
+    synchronized void put(Object key, Object value) {
+        entries.put(key(key), value);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized FaveList keys() {
+        FaveList keys = new FaveList(entries.size());
+        for (Object key : entries.keySet()) keys.add(key);
+        return keys;
+    }
+
+    private static Object key(Object key) {
+        return key instanceof Rope ? key.toString() : key;
+    }
+
+    @Override
+    public String toString() {
+        if (!Interpreter.enterStringify(this)) return "{...}";
+        try {
+            // Copied first, so no lock is held while stringifying the entries.
+            List<Map.Entry<Object, Object>> copy;
+            synchronized (this) {
+                copy = new ArrayList<>(entries.size());
+                for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+                    copy.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+                }
+            }
+
+            StringBuilder text = new StringBuilder("{");
+            for (Map.Entry<Object, Object> entry : copy) {
+                if (text.length() > 1) text.append(", ");
+                text.append(Interpreter.stringify(entry.getKey()))
+                    .append(": ")
+                    .append(Interpreter.stringify(entry.getValue()));
+            }
+
+            return text.append("}").toString();
+        } finally {
+            Interpreter.exitStringify(this);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.fabiansimon.fave;
+
+import java.util.Arrays;
+
+// Polymorphic inline cache for a property access site, keyed by Shape. Each
+// entry remembers either the field slot, the method found when the shape has
+// no such field, or for stores the shape an instance transitions to. A full
+// cache replaces its oldest entry, so sites whose classes are re-declared (the
+// same AST run again) start caching the new shapes. A site that keeps
+// evicting sees too many shapes to be worth caching: after MAX_EVICTIONS it
+// goes megamorphic, empties, and every access takes the uncached lookup.
+//
+// Syntax trees are shared between contexts running on different threads.
+// Lookups read one immutable array of immutable entries and take no lock;
+// misses, which are rare, add under the cache's lock and publish a new array.
+public class InlineCache {
+    private static final int MAX_ENTRIES = 4;
+    private static final int MAX_EVICTIONS = 8;
+    private static final Entry[] EMPTY = new Entry[0];
+
+    static final class Entry {
+        final Shape shape;
+        final int slot;
+        final FaveFunction method;
+        final Shape transition;
+
+        Entry(Shape shape, int slot, FaveFunction method, Shape transition) {
+            this.shape = shape;
+            this.slot = slot;
+            this.method = method;
+            this.transition = transition;
+        }
+    }
+
+    // Oldest first.
+    private volatile Entry[] entries = EMPTY;
+    private int evictions = 0;
+
+    Entry find(Shape shape) {
+        for (Entry entry : entries) {
+            if (entry.shape == shape) return entry;
+        }
+
+        return null;
+    }
+
+    synchronized void add(Shape shape, int slot, FaveFunction method, Shape transition) {
+        if (evictions == MAX_EVICTIONS) return;
+
+        Entry entry = new Entry(shape, slot, method, transition);
+        Entry[] old = entries;
+        if (old.length < MAX_ENTRIES) {
+            Entry[] grown = Arrays.copyOf(old, old.length + 1);
+            grown[old.length] = entry;
+            entries = grown;
+            return;
+        }
+
+        if (++evictions == MAX_EVICTIONS) {
+            entries = EMPTY;
+            return;
+        }
+
+        Entry[] shifted = new Entry[MAX_ENTRIES];
+        System.arraycopy(old, 1, shifted, 0, MAX_ENTRIES - 1);
+        shifted[MAX_ENTRIES - 1] = entry;
+        entries = shifted;
+    }
+}
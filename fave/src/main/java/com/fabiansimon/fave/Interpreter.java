@@ -0,0 +1,758 @@
+package com.fabiansimon.fave;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Completion> {
+    final Environment globals;
+    private Environment environment;
+    // Value of the last executed return statement, handed to the caller
+    // together with Completion.RETURN.
+    private Object returnValue = null;
+    // Set by 'fave --profile'; every hook is skipped while it is null.
+    Profiler profiler = null;
+    private final PrintStream out;
+
+    Interpreter() {
+        this(System.out);
+    }
+
+    Interpreter(PrintStream out) {
+        this.globals = new Environment();
+        this.environment = globals;
+        this.out = out;
+        defineNatives(globals);
+        Concurrency.defineNatives(globals, function -> new Interpreter(this).runTask(function));
+    }
+
+    // Runs a spawned function on another thread, sharing the parent's globals.
+    private Interpreter(Interpreter parent) {
+        this.globals = parent.globals;
+        this.environment = globals;
+        this.out = parent.out;
+    }
+
+    private Object runTask(Object function) {
+        if (!(function instanceof FaveCallable) || ((FaveCallable) function).arity() != 0) {
+            throw new RuntimeError(null, "Can only spawn functions without parameters.");
+        }
+
+        return ((FaveCallable) function).call(this, new ArrayList<>());
+    }
+
+    static void defineNatives(Environment globals) {
+        globals.define("clock", new FaveCallable() {
+            @Override
+            public int arity() {
+                return 0;
+            }
+
+            @Override
+            public Object call(Interpreter interpreter, List<Object> args) {
+                return (double) System.currentTimeMillis() / 1000.0;
+            }
+
+            @Override
+            public String toString() {
+                return "<native fn>";
+            }
+        });
+
+        CollectionNatives.defineNatives(globals);
+    }
+
+    void interpret(List<Stmt> statements, ErrorReporter reporter) {
+        try {
+            for (Stmt statement : statements) {
+                execute(statement);
+            }
+        } catch (RuntimeError error) {
+            reporter.runtimeError(error);
+        }
+    }
+
+    @Override
+    public Object visitAssignExpr(Expr.Assign expr) {
+        Object value = evaluate(expr.value);
+
+        if (expr.depth >= 0) {
+            environment.assignAt(expr.depth, expr.slot, value);
+        } else {
+            globals.assign(expr.name, value);
+        }
+
+        return value;
+    }
+
+    @Override
+    public Object visitBinaryExpr(Expr.Binary expr) {
+        if (expr.numeric) return box(evaluateDouble(expr));
+
+        switch (expr.operator.type) {
+            case GREATER:
+                return numberOperand(expr.operator, expr.left, expr.right) > numberOperand(expr.operator, expr.right, null);
+            case GREATER_EQUAL:
+                return numberOperand(expr.operator, expr.left, expr.right) >= numberOperand(expr.operator, expr.right, null);
+            case LESS:
+                return numberOperand(expr.operator, expr.left, expr.right) < numberOperand(expr.operator, expr.right, null);
+            case LESS_EQUAL:
+                return numberOperand(expr.operator, expr.left, expr.right) <= numberOperand(expr.operator, expr.right, null);
+        }
+
+        Object left = evaluate(expr.left);
+        Object right = evaluate(expr.right);
+
+        switch (expr.operator.type) {
+            case BANG_EQUAL:
+                return !isEqual(left, right);
+            case EQUAL_EQUAL:
+                return isEqual(left, right);
+            case STAR:
+                if (Rope.isString(left) && right instanceof Double ||
+                    left instanceof Double && Rope.isString(right))
+                    return mulitplyDynamicString(left, right);
+
+                checkNumberOperand(expr.operator, left, right);
+                return box((double) left * (double) right);
+            case SLASH:
+                checkNumberOperand(expr.operator, left, right);
+                if ((double) right == 0) {
+                    return 42;
+                }
+                return box((double) left / (double) right);
+            case PLUS:
+                if (Rope.isString(left) && Rope.isString(right))
+                    return Rope.concat((CharSequence) left, (CharSequence) right);
+
+                if (left instanceof Double && right instanceof Double)
+                    return box((double) left + (double) right);
+
+                if (Rope.isString(left) && right instanceof Double ||
+                    left instanceof Double && Rope.isString(right)) {
+                    return concatDynamicString(left, right);
+                }
+
+                throw new RuntimeError(expr.operator, "Operands not supported.");
+        }
+
+        // unreachable (hopefully)
+        return null;
+    }
+
+    // Arithmetic results become objects here; counted for Metrics.
+    static Object box(double value) {
+        if (Metrics.enabled) Metrics.BOXED_DOUBLES.increment();
+        return value;
+    }
+
+    // The specialised nodes fall back to the node they replace unless their
+    // operands are numbers.
+    @Override
+    public Object visitLocalIncrementExpr(Expr.LocalIncrement expr) {
+        Environment scope = environment.ancestor(expr.depth);
+        Object value = scope.getAt(0, expr.slot);
+        if (!(value instanceof Double)) return evaluate(expr.original);
+
+        Object result = box((double) value + expr.amount);
+        scope.assignAt(0, expr.slot, result);
+        return result;
+    }
+
+    @Override
+    public Object visitCompareLocalsExpr(Expr.CompareLocals expr) {
+        Object left = environment.getAt(expr.leftDepth, expr.leftSlot);
+        Object right = environment.getAt(expr.rightDepth, expr.rightSlot);
+        if (!(left instanceof Double) || !(right instanceof Double)) return evaluate(expr.original);
+
+        return compare(expr.original.operator.type, (double) left, (double) right);
+    }
+
+    @Override
+    public Object visitCompareLocalConstantExpr(Expr.CompareLocalConstant expr) {
+        Object left = environment.getAt(expr.depth, expr.slot);
+        if (!(left instanceof Double)) return evaluate(expr.original);
+
+        return compare(expr.original.operator.type, (double) left, expr.constant);
+    }
+
+    private static boolean compare(TokenType operator, double left, double right) {
+        switch (operator) {
+            case GREATER: return left > right;
+            case GREATER_EQUAL: return left >= right;
+            case LESS: return left < right;
+            default: return left <= right;
+        }
+    }
+
+    @Override
+    public Object visitCallExpr(Expr.Call expr) {
+        if (profiler == null) return dispatchCall(expr, false);
+
+        long start = System.nanoTime();
+        try {
+            return dispatchCall(expr, false);
+        } finally {
+            profiler.site(expr, start);
+        }
+    }
+
+    // A tail call to a Fave function isn't made here; it comes back as a
+    // FaveFunction.TailCall for the caller's invoke loop to make.
+    private Object dispatchCall(Expr.Call expr, boolean tail) {
+        if (expr.callee instanceof Expr.Get) return invoke((Expr.Get) expr.callee, expr, tail);
+        if (expr.callee instanceof Expr.Super) return invokeSuper((Expr.Super) expr.callee, expr, tail);
+
+        Object callee = evaluate(expr.callee);
+        return call(expr, callee, evaluateArguments(expr), tail);
+    }
+
+    // Calls 'object.name(...)' without binding the method to the receiver first.
+    private Object invoke(Expr.Get get, Expr.Call expr, boolean tail) {
+        Object object = evaluate(get.object);
+        if (!(object instanceof FaveInstance)) {
+            throw new RuntimeError(get.name, "Only instances have properties");
+        }
+
+        FaveInstance instance = (FaveInstance) object;
+        FaveFunction method = instance.getMethod(get.name, get.cache);
+        if (method == null) {
+            Object callee = instance.get(get.name, get.cache);
+            return call(expr, callee, evaluateArguments(expr), tail);
+        }
+
+        List<Object> args = evaluateArguments(expr);
+        checkArity(expr, method, args);
+        if (tail) return new FaveFunction.TailCall(method, instance, args);
+        return method.invoke(this, instance, args);
+    }
+
+    private Object invokeSuper(Expr.Super expr, Expr.Call call, boolean tail) {
+        FaveInstance object = (FaveInstance) environment.getAt(expr.depth - 1, 0);
+        FaveFunction method = superMethod(expr);
+
+        List<Object> args = evaluateArguments(call);
+        checkArity(call, method, args);
+        if (tail) return new FaveFunction.TailCall(method, object, args);
+        return method.invoke(this, object, args);
+    }
+
+    private List<Object> evaluateArguments(Expr.Call expr) {
+        List<Object> args = new ArrayList<>();
+        for (Expr argument : expr.arguments) {
+            args.add(evaluate(argument));
+        }
+
+        return args;
+    }
+
+    private Object call(Expr.Call expr, Object callee, List<Object> args, boolean tail) {
+        if (!(callee instanceof FaveCallable)) {
+            throw new RuntimeError(expr.paren, "Can only call functions and classes.");
+        }
+
+        FaveCallable function = (FaveCallable) callee;
+        checkArity(expr, function, args);
+        if (tail && function instanceof FaveFunction) return ((FaveFunction) function).tailCall(args);
+        try {
+            return function.call(this, args);
+        } catch (RuntimeError error) {
+            // Natives have no token of their own to report at.
+            if (error.token == null) throw new RuntimeError(expr.paren, error.getMessage());
+            throw error;
+        }
+    }
+
+    private void checkArity(Expr.Call expr, FaveCallable function, List<Object> args) {
+        if (args.size() != function.arity()) {
+            throw new RuntimeError(expr.paren, "Expect " + function.arity() + " arguments but got " + args.size() + " instead.");
+        }
+    }
+
+    @Override
+    public Object visitGetExpr(Expr.Get expr) {
+        Object object = evaluate(expr.object);
+        if (object instanceof FaveInstance) {
+            return ((FaveInstance) object).get(expr.name, expr.cache);
+        }
+
+        throw new RuntimeError(expr.name, "Only instances have properties");
+    }
+
+    @Override
+    public Object visitGroupingExpr(Expr.Grouping expr) {
+        return evaluate(expr.expression);
+    }
+
+    @Override
+    public Object visitLiteralExpr(Expr.Literal expr) {
+        return expr.value;
+    }
+
+    @Override
+    public Object visitLogicalExpr(Expr.Logical expr) {
+        Object left = evaluate(expr.left);
+
+        if (expr.operator.type == TokenType.OR) {
+            if (isTruthful(left)) return left;
+        } else {
+            if (!isTruthful(left)) return left;
+        }
+
+        return evaluate(expr.right);
+    }
+
+    @Override
+    public Object visitUnaryExpr(Expr.Unary expr) {
+        switch (expr.operator.type) {
+            case BANG:
+                return !isTruthful(evaluate(expr.right));
+            case MINUS:
+                return box(evaluateDouble(expr));
+        }
+
+        return null;
+    }
+
+    @Override
+    public Object visitSetExpr(Expr.Set expr) {
+        Object object = evaluate(expr.object);
+
+        if (!(object instanceof FaveInstance)) {
+            throw new RuntimeError(expr.name, "Only instances have field");
+        }
+
+        Object value = evaluate(expr.value);
+        ((FaveInstance) object).set(expr.name, value, expr.cache);
+        return value;
+    }
+
+    @Override
+    public Object visitIndexExpr(Expr.Index expr) {
+        Object object = evaluate(expr.object);
+        return getIndex(expr.bracket, object, evaluate(expr.index));
+    }
+
+    @Override
+    public Object visitSetIndexExpr(Expr.SetIndex expr) {
+        Object object = evaluate(expr.object);
+        Object index = evaluate(expr.index);
+
+        // Numbers stored into a numeric list are never boxed on the way.
+        if (expr.value.numeric && object instanceof FaveList && ((FaveList) object).isNumeric()) {
+            FaveList list = (FaveList) object;
+            int i = listIndex(expr.bracket, list, index);
+            double value = evaluateDouble(expr.value);
+            list.setDouble(i, value);
+            return value;
+        }
+
+        Object value = evaluate(expr.value);
+        setIndex(expr.bracket, object, index, value);
+        return value;
+    }
+
+    @Override
+    public Object visitListLiteralExpr(Expr.ListLiteral expr) {
+        FaveList list = new FaveList(expr.elements.size());
+        for (Expr element : expr.elements) {
+            if (element.numeric) {
+                list.addDouble(evaluateDouble(element));
+            } else {
+                list.add(evaluate(element));
+            }
+        }
+
+        return list;
+    }
+
+    @Override
+    public Object visitMapLiteralExpr(Expr.MapLiteral expr) {
+        FaveMap map = new FaveMap();
+        for (int i = 0; i < expr.keys.size(); i++) {
+            Object key = evaluate(expr.keys.get(i));
+            map.put(key, evaluate(expr.values.get(i)));
+        }
+
+        return map;
+    }
+
+    static Object getIndex(Token bracket, Object object, Object index) {
+        if (object instanceof FaveList) {
+            FaveList list = (FaveList) object;
+            return list.get(listIndex(bracket, list, index));
+        }
+        if (object instanceof FaveMap) return ((FaveMap) object).get(index);
+
+        throw new RuntimeError(bracket, "Can only index lists and maps.");
+    }
+
+    static void setIndex(Token bracket, Object object, Object index, Object value) {
+        if (object instanceof FaveList) {
+            FaveList list = (FaveList) object;
+            list.set(listIndex(bracket, list, index), value);
+            return;
+        }
+        if (object instanceof FaveMap) {
+            ((FaveMap) object).put(index, value);
+            return;
+        }
+
+        throw new RuntimeError(bracket, "Can only index lists and maps.");
+    }
+
+    private static int listIndex(Token bracket, FaveList list, Object index) {
+        if (!(index instanceof Double) || (double) index != Math.floor((double) index)) {
+            throw new RuntimeError(bracket, "List index must be a whole number.");
+        }
+
+        double i = (double) index;
+        if (i < 0 || i >= list.size()) {
+            throw new RuntimeError(bracket, "List index out of range.");
+        }
+
+        return (int) i;
+    }
+
+    @Override
+    public Object visitSuperExpr(Expr.Super expr) {
+        FaveInstance object = (FaveInstance) environment.getAt(expr.depth - 1, 0);
+        return superMethod(expr).bind(object);
+    }
+
+    private FaveFunction superMethod(Expr.Super expr) {
+        FaveClass superclass = (FaveClass) environment.getAt(expr.depth, 0);
+        SuperCache cache = expr.cache;
+        if (cache != null && cache.superclass == superclass) return cache.method;
+
+        FaveFunction method = superclass.findMethod(expr.method.symbol);
+
+        if (method == null) {
+            throw new RuntimeError(expr.method, "Undefined property '" + expr.method.lexeme + "'.");
+        }
+
+        expr.cache = new SuperCache(superclass, method);
+        return method;
+    }
+
+    @Override
+    public Object visitThisExpr(Expr.This expr) {
+        return lookUpVariable(expr.keyword, expr.depth, expr.slot);
+    }
+
+    @Override
+    public Object visitVariableExpr(Expr.Variable expr) {
+        return lookUpVariable(expr.name, expr.depth, expr.slot);
+    }
+
+    private Object lookUpVariable(Token name, int depth, int slot) {
+        if (depth >= 0) {
+            return environment.getAt(depth, slot);
+        } else {
+            return globals.get(name);
+        }
+    }
+
+    // Evaluates an expression the Resolver marked numeric without boxing any
+    // intermediate result; only the caller of the outermost node boxes.
+    private double evaluateDouble(Expr expr) {
+        if (expr instanceof Expr.Literal) return (double) ((Expr.Literal) expr).value;
+        if (expr instanceof Expr.Grouping) return evaluateDouble(((Expr.Grouping) expr).expression);
+
+        if (expr instanceof Expr.Unary) {
+            Expr.Unary unary = (Expr.Unary) expr;
+            if (unary.right.numeric) return -evaluateDouble(unary.right);
+
+            Object right = evaluate(unary.right);
+            checkNumberOperand(unary.operator, right);
+            return -(double) right;
+        }
+
+        Expr.Binary binary = (Expr.Binary) expr;
+        double left = numberOperand(binary.operator, binary.left, binary.right);
+        double right = numberOperand(binary.operator, binary.right, null);
+
+        switch (binary.operator.type) {
+            case MINUS: return left - right;
+            case STAR: return left * right;
+            default: return left + right;
+        }
+    }
+
+    // Evaluates the left operand of a binary expression, passing the right
+    // one as rest, or the right operand, passing null. Operands are all
+    // evaluated before either is checked, so a left operand that is no
+    // number only raises the error after rest has run.
+    private double numberOperand(Token operator, Expr operand, Expr rest) {
+        if (operand.numeric) return evaluateDouble(operand);
+        if (operand instanceof Expr.Index) return indexOperand(operator, (Expr.Index) operand, rest);
+
+        Object value = evaluate(operand);
+        if (value instanceof Double) return (double) value;
+        throw operandsError(operator, rest);
+    }
+
+    // Reads an element of a numeric list without boxing it.
+    private double indexOperand(Token operator, Expr.Index operand, Expr rest) {
+        Object object = evaluate(operand.object);
+        Object index = evaluate(operand.index);
+
+        if (object instanceof FaveList) {
+            FaveList list = (FaveList) object;
+            int i = listIndex(operand.bracket, list, index);
+            double[] numbers = list.numbers();
+            if (numbers != null) return numbers[i];
+        }
+
+        Object value = getIndex(operand.bracket, object, index);
+        if (value instanceof Double) return (double) value;
+        throw operandsError(operator, rest);
+    }
+
+    private RuntimeError operandsError(Token operator, Expr rest) {
+        if (rest != null) evaluate(rest);
+        return new RuntimeError(operator, "Operands must be numbers.");
+    }
+
+    private void checkNumberOperand(Token operator, Object operand) {
+        if (operand instanceof Double) return;
+        throw new RuntimeError(operator, "Operand must be a number.");
+    }
+    private void checkNumberOperand(Token operator, Object left, Object right) {
+        if (left instanceof Double && right instanceof Double) return;
+        throw new RuntimeError(operator, "Operands must be numbers.");
+    }
+
+    static Object concatDynamicString(Object a, Object b) {
+        String repl;
+        if (a instanceof Double) {
+            repl = a.toString();
+        } else {
+            repl = b.toString();
+        }
+
+        if (repl.endsWith(".0")) repl = repl.substring(0, repl.length()-2);
+
+        return a instanceof Double ? Rope.concat(repl, (CharSequence) b) : Rope.concat((CharSequence) a, repl);
+    }
+
+    static String mulitplyDynamicString(Object a, Object b) {
+        if (Metrics.enabled) Metrics.CONCATENATIONS.increment();
+        String text = "";
+        Double multiplicator = 0.0;
+        if (a instanceof Double) {
+            multiplicator = (double) a;
+            text = b.toString();
+        } else {
+            multiplicator = (double) b;
+            text = a.toString();
+        }
+
+        // repeat() sizes the result once up front.
+        return text.repeat((int) Math.max(0, Math.floor(multiplicator)));
+    }
+
+    static boolean isTruthful(Object object) {
+        if (object == null) return false;
+        if (object instanceof Boolean) return (boolean) object;
+
+        return true;
+    }
+
+    static boolean isEqual(Object a, Object b) {
+        if (a == null && b == null) return true;
+        if (a == null) return false;
+
+        // A rope equals a String with the same text.
+        if (a instanceof Rope) a = a.toString();
+        if (b instanceof Rope) b = b.toString();
+        return a.equals(b);
+    }
+
+    // Lists and maps being stringified on this thread, so one that contains
+    // itself prints as [...] or {...} there instead of recursing forever.
+    private static final ThreadLocal<Set<Object>> stringifying =
+        ThreadLocal.withInitial(() -> Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    // Returns false if the container is already being stringified further up.
+    static boolean enterStringify(Object container) {
+        return stringifying.get().add(container);
+    }
+
+    static void exitStringify(Object container) {
+        stringifying.get().remove(container);
+    }
+
+    static String stringify(Object object) {
+        if (object == null) return "nil";
+
+        if (object instanceof Double) {
+            String text = object.toString();
+            if (text.endsWith(".0")) {
+                text = text.substring(0, text.length() - 2);
+            }
+
+            return text;
+        }
+
+        return object.toString();
+    }
+
+    private Object evaluate(Expr expr) {
+        return expr.accept(this);
+    }
+
+    private Completion execute(Stmt stmt) {
+        if (profiler != null) profiler.statement();
+        return stmt.accept(this);
+    }
+
+    Object takeReturnValue() {
+        Object value = returnValue;
+        returnValue = null;
+        return value;
+    }
+
+    private void define(Token name, int slot, Object value) {
+        if (slot >= 0) {
+            environment.defineAt(slot, value);
+        } else {
+            globals.define(name.symbol, value);
+        }
+    }
+
+    public Completion executeBlock(List<Stmt> statements, Environment environment) {
+        Environment previous = this.environment;
+
+        try {
+            this.environment = environment;
+            for (Stmt statement : statements) {
+                if (execute(statement) == Completion.RETURN) return Completion.RETURN;
+            }
+            return Completion.NORMAL;
+        } finally {
+            this.environment = previous;
+        }
+    }
+
+    @Override
+    public Completion visitBlockStmt(Stmt.Block stmt) {
+        if (!stmt.flattened) return executeBlock(stmt.statements, new Environment(environment, stmt.slots));
+
+        // Its locals live in the enclosing Environment.
+        for (Stmt statement : stmt.statements) {
+            if (execute(statement) == Completion.RETURN) return Completion.RETURN;
+        }
+        return Completion.NORMAL;
+    }
+
+    @Override
+    public Completion visitClassStmt(Stmt.Class stmt) {
+        Object superclass = null;
+
+        if (stmt.superclass != null) {
+            superclass = evaluate(stmt.superclass);
+            if (!(superclass instanceof FaveClass)) {
+                throw new RuntimeError(stmt.superclass.name, "Superclass mus be a class");
+            }
+        }
+        define(stmt.name, stmt.slot, null);
+
+        if (stmt.superclass != null) {
+            environment = new Environment(environment, 1);
+            environment.defineAt(0, superclass);
+        }
+
+        SymbolMap<FaveFunction> methods = new SymbolMap<>();
+        for (Stmt.Function method : stmt.methods) {
+            FaveFunction function = new FaveFunction(method, environment, method.name.symbol == Symbol.INIT);
+            methods.put(method.name.symbol, function);
+        }
+
+        FaveClass fClass = new FaveClass(stmt.name.lexeme, methods, (FaveClass) superclass);
+
+        if (stmt.superclass != null) {
+            environment = environment.enclosing;
+        }
+
+        define(stmt.name, stmt.slot, fClass);
+        return Completion.NORMAL;
+    }
+
+    @Override
+    public Completion visitExpressionStmt(Stmt.Expression stmt) {
+        evaluate(stmt.expression);
+        return Completion.NORMAL;
+    }
+
+    @Override
+    public Completion visitFunctionStmt(Stmt.Function stmt) {
+        FaveFunction function = new FaveFunction(stmt, environment, false);
+        define(stmt.name, stmt.slot, function);
+        return Completion.NORMAL;
+    }
+
+    @Override
+    public Completion visitIfStmt(Stmt.If stmt) {
+        if (isTruthful(evaluate(stmt.condition))) {
+            return execute(stmt.thenBranch);
+        } else if (stmt.elseBranch != null) {
+            return execute(stmt.elseBranch);
+        }
+        return Completion.NORMAL;
+    }
+
+    @Override
+    public Completion visitPrintStmt(Stmt.Print stmt) {
+        Object value = evaluate(stmt.expression);
+        out.println(stringify(value));
+        return Completion.NORMAL;
+    }
+
+    @Override
+    public Completion visitReturnStmt(Stmt.Return stmt) {
+        Object value = null;
+        if (stmt.tailCall) {
+            // Not timed as a call site by the Profiler; the callee still is.
+            value = dispatchCall((Expr.Call) stmt.value, true);
+        } else if (stmt.value != null) {
+            value = evaluate(stmt.value);
+        }
+
+        returnValue = value;
+        return Completion.RETURN;
+    }
+
+    @Override
+    public Completion visitVarStmt(Stmt.Var stmt) {
+        Object value = null;
+        if (stmt.initializer != null) {
+            value = evaluate(stmt.initializer);
+        }
+
+        define(stmt.name, stmt.slot, value);
+        return Completion.NORMAL;
+    }
+
+    @Override
+    public Completion visitWhileStmt(Stmt.While stmt) {
+        while (isTruthful(evaluate(stmt.condition))) {
+            if (execute(stmt.body) == Completion.RETURN) return Completion.RETURN;
+        }
+
+        return Completion.NORMAL;
+    }
+
+    @Override
+    public Completion visitCountedLoopStmt(Stmt.CountedLoop stmt) {
+        while (isTruthful(evaluate(stmt.condition))) {
+            if (execute(stmt.body) == Completion.RETURN) return Completion.RETURN;
+            evaluate(stmt.increment);
+        }
+
+        return Completion.NORMAL;
+    }
+}
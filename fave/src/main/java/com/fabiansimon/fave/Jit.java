@@ -0,0 +1,98 @@
+package com.fabiansimon.fave;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collections;
+import java.util.List;
+
+// Second tier for the Interpreter. FaveFunction counts the calls of each
+// function; when one reaches THRESHOLD, JitCompiler tries to turn its body
+// into a JVM method, loaded as a hidden class so HotSpot compiles and inlines
+// it like any other Java code. Later calls with numbers for arguments run
+// the method; anything else is interpreted as before.
+//
+// Compiled functions have no effects, so the method can give up half way by
+// throwing Deopt, and the call is interpreted from the start instead. After
+// that the function stays interpreted, since the same thing would likely
+// happen again.
+final class Jit {
+    static final int THRESHOLD = 1000;
+    // Cleared by 'fave --no-jit'.
+    static boolean enabled = true;
+
+    // Returned when the caller has to interpret the call itself.
+    static final Object INTERPRET = new Object();
+
+    static final class Deopt extends RuntimeException {
+        static final Deopt INSTANCE = new Deopt();
+
+        private Deopt() {
+            super(null, null, false, false);
+        }
+    }
+
+    static final class Code {
+        private final Symbol name;
+        private final MethodHandle run;
+        private final boolean recursive;
+
+        Code(Symbol name, MethodHandle run, boolean recursive) {
+            this.name = name;
+            this.run = run;
+            this.recursive = recursive;
+        }
+    }
+
+    private static final Code UNCOMPILABLE = new Code(null, null, false);
+
+    private Jit() {}
+
+    static Object run(Stmt.Function function, FaveFunction callee, Environment globals, List<Object> args) {
+        Code code = function.compiled;
+        if (code == null) {
+            if (!enabled || ++function.calls < THRESHOLD) return INTERPRET;
+            code = compile(function);
+            function.compiled = code;
+        }
+        if (code == UNCOMPILABLE) return INTERPRET;
+
+        // The method calls itself directly, which is only right while the
+        // global it calls itself through still holds this function.
+        if (code.recursive && globals.lookup(code.name) != callee) return INTERPRET;
+
+        double[] values = new double[args.size()];
+        for (int i = 0; i < values.length; i++) {
+            if (!(args.get(i) instanceof Double)) return INTERPRET;
+            values[i] = (double) args.get(i);
+        }
+
+        try {
+            return (double) code.run.invokeExact(values);
+        } catch (Deopt deopt) {
+            function.compiled = UNCOMPILABLE;
+            return INTERPRET;
+        } catch (RuntimeException | Error error) {
+            throw error;
+        } catch (Throwable error) {
+            throw new IllegalStateException(error);
+        }
+    }
+
+    private static Code compile(Stmt.Function function) {
+        String className = "com/fabiansimon/fave/Jit$" + function.name.lexeme;
+        JitCompiler compiler = new JitCompiler(function, className);
+        try {
+            byte[] bytes = compiler.compile();
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+
+            int arity = function.params.size();
+            MethodType type = MethodType.methodType(double.class, Collections.nCopies(arity, double.class));
+            MethodHandle run = lookup.findStatic(lookup.lookupClass(), "run", type)
+                .asSpreader(double[].class, arity);
+            return new Code(function.name.symbol, run, compiler.recursive);
+        } catch (JitCompiler.Unsupported | ReflectiveOperationException | LinkageError error) {
+            return UNCOMPILABLE;
+        }
+    }
+}
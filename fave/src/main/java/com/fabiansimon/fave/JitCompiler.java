@@ -0,0 +1,278 @@
+package com.fabiansimon.fave;
+
+import java.util.List;
+
+import static com.fabiansimon.fave.ClassFile.*;
+
+// Compiles a function body to the JVM method
+//
+//   static double run(double p0, double p1, ...)
+//
+// for functions that only do arithmetic and comparisons on their own locals
+// and call themselves. Every local is a double, kept in the JVM local pair at
+// 2 * slot; booleans only exist as branches. Such a function has no effects,
+// so when the method meets something it can't express as a double (division
+// by zero, returning nil) it throws Jit.Deopt and the call is simply
+// interpreted again from the start. Anything outside that subset throws
+// Unsupported while compiling and the function stays interpreted.
+final class JitCompiler {
+    static final class Unsupported extends Exception {
+        Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final Stmt.Function function;
+    private final ClassFile classFile;
+    private final Code code = new Code();
+    private final String descriptor;
+    private final int self;
+    private final int deopt;
+    private final Label start = new Label();
+    // JVM locals above the Fave slots, for tail call arguments.
+    private final int temps;
+    boolean recursive = false;
+
+    JitCompiler(Stmt.Function function, String className) {
+        this.function = function;
+        this.classFile = new ClassFile(className);
+        this.descriptor = "(" + "D".repeat(function.params.size()) + ")D";
+        this.self = classFile.methodRef(className, "run", descriptor);
+        this.deopt = classFile.fieldRef("com/fabiansimon/fave/Jit$Deopt", "INSTANCE",
+                "Lcom/fabiansimon/fave/Jit$Deopt;");
+        this.temps = 2 * function.slots;
+    }
+
+    byte[] compile() throws Unsupported {
+        // Each parameter takes two JVM slots; past 255 the descriptor is invalid.
+        if (function.isMethod || function.params.size() > 100) throw new Unsupported();
+
+        code.maxLocals = temps;
+        code.mark(start);
+        for (Stmt statement : function.body) statement(statement);
+
+        // Falling off the end returns nil.
+        throwDeopt();
+
+        try {
+            classFile.method("run", descriptor, code);
+        } catch (IllegalStateException error) {
+            throw new Unsupported();
+        }
+        return classFile.toBytes();
+    }
+
+    private void statement(Stmt stmt) throws Unsupported {
+        if (stmt instanceof Stmt.Block) {
+            Stmt.Block block = (Stmt.Block) stmt;
+            // A block of its own would hold locals a closure captures.
+            if (!block.flattened) throw new Unsupported();
+            for (Stmt statement : block.statements) statement(statement);
+        } else if (stmt instanceof Stmt.Var) {
+            Stmt.Var var = (Stmt.Var) stmt;
+            if (var.slot < 0 || var.initializer == null) throw new Unsupported();
+            number(var.initializer);
+            code.local(DSTORE, 2 * var.slot, -2);
+        } else if (stmt instanceof Stmt.Expression) {
+            Expr expression = ((Stmt.Expression) stmt).expression;
+            // What the Optimizer leaves of a dropped statement.
+            if (expression instanceof Expr.Literal) return;
+            number(expression);
+            code.op(POP2, -2);
+        } else if (stmt instanceof Stmt.If) {
+            Stmt.If ifStmt = (Stmt.If) stmt;
+            Label otherwise = new Label();
+            Label end = new Label();
+            jump(ifStmt.condition, false, otherwise);
+            statement(ifStmt.thenBranch);
+            if (ifStmt.elseBranch != null) code.jump(GOTO, end, 0);
+            code.mark(otherwise);
+            if (ifStmt.elseBranch != null) statement(ifStmt.elseBranch);
+            code.mark(end);
+        } else if (stmt instanceof Stmt.While || stmt instanceof Stmt.CountedLoop) {
+            Stmt.While loop = stmt instanceof Stmt.While ? (Stmt.While) stmt : ((Stmt.CountedLoop) stmt).original;
+            Label top = new Label();
+            Label end = new Label();
+            code.mark(top);
+            jump(loop.condition, false, end);
+            statement(loop.body);
+            code.jump(GOTO, top, 0);
+            code.mark(end);
+        } else if (stmt instanceof Stmt.Return) {
+            returnStatement((Stmt.Return) stmt);
+        } else {
+            throw new Unsupported();
+        }
+    }
+
+    private void returnStatement(Stmt.Return stmt) throws Unsupported {
+        if (stmt.value == null) {
+            throwDeopt();
+            return;
+        }
+
+        // A call to itself in tail position restarts the method with new arguments.
+        if (stmt.tailCall && isSelfCall(stmt.value)) {
+            List<Expr> arguments = ((Expr.Call) stmt.value).arguments;
+            for (int i = 0; i < arguments.size(); i++) {
+                number(arguments.get(i));
+                code.local(DSTORE, temps + 2 * i, -2);
+            }
+            for (int i = 0; i < arguments.size(); i++) {
+                code.local(DLOAD, temps + 2 * i, 2);
+                code.local(DSTORE, 2 * i, -2);
+            }
+            code.jump(GOTO, start, 0);
+            recursive = true;
+            return;
+        }
+
+        number(stmt.value);
+        code.op(DRETURN, -2);
+    }
+
+    // Leaves the value of the expression on the stack as a double.
+    private void number(Expr expr) throws Unsupported {
+        if (expr instanceof Expr.Literal) {
+            Object value = ((Expr.Literal) expr).value;
+            if (!(value instanceof Double)) throw new Unsupported();
+            constant((double) value);
+        } else if (expr instanceof Expr.Grouping) {
+            number(((Expr.Grouping) expr).expression);
+        } else if (expr instanceof Expr.Variable) {
+            Expr.Variable variable = (Expr.Variable) expr;
+            if (variable.depth != 0) throw new Unsupported();
+            code.local(DLOAD, 2 * variable.slot, 2);
+        } else if (expr instanceof Expr.Assign || expr instanceof Expr.LocalIncrement) {
+            Expr.Assign assign = expr instanceof Expr.Assign ? (Expr.Assign) expr : ((Expr.LocalIncrement) expr).original;
+            if (assign.depth != 0) throw new Unsupported();
+            number(assign.value);
+            code.op(DUP2, 2);
+            code.local(DSTORE, 2 * assign.slot, -2);
+        } else if (expr instanceof Expr.Unary && ((Expr.Unary) expr).operator.type == TokenType.MINUS) {
+            number(((Expr.Unary) expr).right);
+            code.op(DNEG, 0);
+        } else if (expr instanceof Expr.Binary) {
+            arithmetic((Expr.Binary) expr);
+        } else if (isSelfCall(expr)) {
+            for (Expr argument : ((Expr.Call) expr).arguments) number(argument);
+            code.op(INVOKESTATIC, self, 2 - 2 * function.params.size());
+            recursive = true;
+        } else {
+            throw new Unsupported();
+        }
+    }
+
+    private void arithmetic(Expr.Binary expr) throws Unsupported {
+        number(expr.left);
+        number(expr.right);
+
+        switch (expr.operator.type) {
+            case PLUS: code.op(DADD, -2); break;
+            case MINUS: code.op(DSUB, -2); break;
+            case STAR: code.op(DMUL, -2); break;
+            case SLASH: {
+                // The Interpreter gives 42, not a double, for division by zero.
+                Label nonZero = new Label();
+                code.op(DUP2, 2);
+                code.op(DCONST_0, 2);
+                code.op(DCMPL, -3);
+                code.jump(IFNE, nonZero, -1);
+                throwDeopt();
+                code.mark(nonZero);
+                code.op(DDIV, -2);
+                break;
+            }
+            default:
+                throw new Unsupported();
+        }
+    }
+
+    // Branches to target when the condition's truth equals 'when'.
+    private void jump(Expr expr, boolean when, Label target) throws Unsupported {
+        if (expr instanceof Expr.CompareLocals) expr = ((Expr.CompareLocals) expr).original;
+        if (expr instanceof Expr.CompareLocalConstant) expr = ((Expr.CompareLocalConstant) expr).original;
+
+        if (expr instanceof Expr.Grouping) {
+            jump(((Expr.Grouping) expr).expression, when, target);
+        } else if (expr instanceof Expr.Literal && ((Expr.Literal) expr).value instanceof Boolean) {
+            if ((boolean) ((Expr.Literal) expr).value == when) code.jump(GOTO, target, 0);
+        } else if (expr instanceof Expr.Unary && ((Expr.Unary) expr).operator.type == TokenType.BANG) {
+            jump(((Expr.Unary) expr).right, !when, target);
+        } else if (expr instanceof Expr.Logical) {
+            Expr.Logical logical = (Expr.Logical) expr;
+            boolean isAnd = logical.operator.type == TokenType.AND;
+            // 'a and b' is false as soon as a is, 'a or b' true as soon as a is.
+            if (isAnd != when) {
+                jump(logical.left, when, target);
+                jump(logical.right, when, target);
+            } else {
+                Label skip = new Label();
+                jump(logical.left, !when, skip);
+                jump(logical.right, when, target);
+                code.mark(skip);
+            }
+        } else if (expr instanceof Expr.Binary) {
+            comparison((Expr.Binary) expr, when, target);
+        } else {
+            throw new Unsupported();
+        }
+    }
+
+    private void comparison(Expr.Binary expr, boolean when, Label target) throws Unsupported {
+        TokenType operator = expr.operator.type;
+        if (operator == TokenType.EQUAL_EQUAL || operator == TokenType.BANG_EQUAL) {
+            // Interpreter.isEqual uses Double.equals: NaN equals itself, 0 and -0 differ.
+            number(expr.left);
+            number(expr.right);
+            code.op(INVOKESTATIC, classFile.methodRef("java/lang/Double", "compare", "(DD)I"), -3);
+            boolean equal = operator == TokenType.EQUAL_EQUAL;
+            code.jump(equal == when ? IFEQ : IFNE, target, -1);
+            return;
+        }
+
+        // dcmpg and dcmpl order NaN so that every comparison with it is false.
+        int compare;
+        int branch;
+        switch (operator) {
+            case LESS: compare = DCMPG; branch = when ? IFLT : IFGE; break;
+            case LESS_EQUAL: compare = DCMPG; branch = when ? IFLE : IFGT; break;
+            case GREATER: compare = DCMPL; branch = when ? IFGT : IFLE; break;
+            case GREATER_EQUAL: compare = DCMPL; branch = when ? IFGE : IFLT; break;
+            default: throw new Unsupported();
+        }
+
+        number(expr.left);
+        number(expr.right);
+        code.op(compare, -3);
+        code.jump(branch, target, -1);
+    }
+
+    private boolean isSelfCall(Expr expr) {
+        if (!(expr instanceof Expr.Call)) return false;
+
+        Expr.Call call = (Expr.Call) expr;
+        if (!(call.callee instanceof Expr.Variable)) return false;
+
+        Expr.Variable callee = (Expr.Variable) call.callee;
+        return callee.depth < 0 && callee.name.symbol == function.name.symbol
+            && call.arguments.size() == function.params.size();
+    }
+
+    private void constant(double value) {
+        if (Double.doubleToRawLongBits(value) == 0) {
+            code.op(DCONST_0, 2);
+        } else if (value == 1) {
+            code.op(DCONST_1, 2);
+        } else {
+            code.op(LDC2_W, classFile.doubleConstant(value), 2);
+        }
+    }
+
+    private void throwDeopt() {
+        int depth = code.stack();
+        code.op(GETSTATIC, deopt, 1);
+        code.op(ATHROW, -1);
+        code.setStack(depth);
+    }
+}
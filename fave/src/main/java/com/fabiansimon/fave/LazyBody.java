@@ -0,0 +1,63 @@
+package com.fabiansimon.fave;
+
+import java.util.List;
+
+// Range of the TokenBuffer holding a top-level function body that the
+// Parser skipped, see 'fave --lazy'. The body is parsed, resolved and
+// optimised the first time the function runs, and added to the function's
+// empty body list. A top-level function only sees its own locals and
+// globals, so resolving it on its own gives the same slots as resolving it
+// with the rest of the script.
+//
+// Brackets and the commonest syntax errors are still checked when the script
+// compiles, by a scan over the body's tokens in Parser.skipBody. Errors the
+// scan can't see, and resolution errors, are raised on the first call.
+//
+// The passes run over the script leave a note here instead of visiting the
+// body, and are repeated on it once it is parsed.
+final class LazyBody {
+    private final TokenBuffer tokens;
+    private final int start;
+    private final int end;
+    boolean optimize = false;
+    boolean specialize = false;
+    private volatile boolean loaded = false;
+
+    LazyBody(TokenBuffer tokens, int start, int end) {
+        this.tokens = tokens;
+        this.start = start;
+        this.end = end;
+    }
+
+    // Throws RuntimeError, on every call, if the body has errors.
+    void load(Stmt.Function function) {
+        if (loaded) return;
+
+        synchronized (this) {
+            if (loaded) return;
+
+            ErrorReporter reporter = new ErrorReporter();
+            List<Stmt> body = new Parser(tokens, start, end, reporter).parse();
+            if (reporter.hadError()) throw error(function, reporter);
+
+            Stmt.Function parsed = new Stmt.Function(function.name, function.params, body);
+            new Resolver(reporter).resolveFunction(parsed);
+            if (reporter.hadError()) throw error(function, reporter);
+
+            if (specialize) {
+                body = new Specializer().specialize(body);
+            } else if (optimize) {
+                body = new Optimizer().optimize(body);
+            }
+
+            function.body.addAll(body);
+            function.slots = parsed.slots;
+            function.captured = parsed.captured;
+            loaded = true;
+        }
+    }
+
+    private static RuntimeError error(Stmt.Function function, ErrorReporter reporter) {
+        return new RuntimeError(function.name, reporter.messages().get(0));
+    }
+}
@@ -0,0 +1,100 @@
+package com.fabiansimon.fave;
+
+// Makes the tokens of one source. Lexemes are interned in an open-addressed
+// table, so repeated identifiers share one String and need no substring to
+// look up. Names also remember their Symbol, so the process-wide table is
+// only asked once per distinct name in the source.
+final class Lexemes {
+    private final CharSequence src;
+    private String[] interned = new String[256];
+    private Symbol[] symbols = new Symbol[256];
+    private int count = 0;
+
+    Lexemes(CharSequence src) {
+        this.src = src;
+    }
+
+    // For the characters from start to end, which the Scanner found to be a
+    // token of the given type.
+    Token token(TokenType type, int start, int end, int line) {
+        switch (type) {
+            case STRING:
+                // The literal leaves out the quotes.
+                return new Token(type, src.subSequence(start, end).toString(), intern(start + 1, end - 1), line);
+            case NUMBER: {
+                String text = intern(start, end);
+                return new Token(type, text, Double.parseDouble(text), line);
+            }
+            default: {
+                if (!Token.isName(type)) return new Token(type, intern(start, end), null, line);
+
+                Symbol symbol = symbol(start, end);
+                return new Token(type, symbol.name, null, line, symbol);
+            }
+        }
+    }
+
+    String intern(int from, int to) {
+        return interned[find(from, to)];
+    }
+
+    Symbol symbol(int from, int to) {
+        int index = find(from, to);
+        Symbol symbol = symbols[index];
+        if (symbol == null) symbol = symbols[index] = Symbol.intern(interned[index]);
+        return symbol;
+    }
+
+    // Index of the lexeme in the table, adding it if it is new.
+    private int find(int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) hash = 31 * hash + src.charAt(i);
+
+        int mask = interned.length - 1;
+        int index = hash & mask;
+        for (String text = interned[index]; text != null; text = interned[index]) {
+            if (text.hashCode() == hash && matches(text, from, to)) return index;
+            index = (index + 1) & mask;
+        }
+
+        interned[index] = src.subSequence(from, to).toString();
+        if (++count * 2 <= interned.length) return index;
+
+        String text = interned[index];
+        grow();
+        return find(text);
+    }
+
+    private int find(String text) {
+        int mask = interned.length - 1;
+        int index = text.hashCode() & mask;
+        while (!text.equals(interned[index])) index = (index + 1) & mask;
+        return index;
+    }
+
+    private boolean matches(String text, int from, int to) {
+        if (text.length() != to - from) return false;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) != src.charAt(from + i)) return false;
+        }
+
+        return true;
+    }
+
+    private void grow() {
+        String[] old = interned;
+        Symbol[] oldSymbols = symbols;
+        interned = new String[old.length * 2];
+        symbols = new Symbol[old.length * 2];
+        int mask = interned.length - 1;
+
+        for (int i = 0; i < old.length; i++) {
+            String text = old[i];
+            if (text == null) continue;
+            int index = text.hashCode() & mask;
+            while (interned[index] != null) index = (index + 1) & mask;
+            interned[index] = text;
+            symbols[index] = oldSymbols[i];
+        }
+    }
+}
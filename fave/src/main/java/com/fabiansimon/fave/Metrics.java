@@ -0,0 +1,64 @@
+package com.fabiansimon.fave;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide allocation counters, for seeing which script patterns put
+// pressure on the garbage collector without attaching a heap profiler. Off
+// until enabled; while off, counting costs one static field read. Counters
+// are LongAdders, so spawned tasks counting at once don't contend.
+public final class Metrics {
+    static boolean enabled = false;
+
+    static final LongAdder ENVIRONMENTS = new LongAdder();
+    static final LongAdder INSTANCES = new LongAdder();
+    static final LongAdder BOUND_METHODS = new LongAdder();
+    static final LongAdder BOXED_DOUBLES = new LongAdder();
+    static final LongAdder CONCATENATIONS = new LongAdder();
+    static final LongAccumulator PEAK_DEPTH = new LongAccumulator(Math::max, 0);
+
+    private Metrics() {}
+
+    // Counts from now on. Enable before running scripts, counts are not
+    // guaranteed to reach threads that are already running.
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static void reset() {
+        ENVIRONMENTS.reset();
+        INSTANCES.reset();
+        BOUND_METHODS.reset();
+        BOXED_DOUBLES.reset();
+        CONCATENATIONS.reset();
+        PEAK_DEPTH.reset();
+    }
+
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("environments", ENVIRONMENTS.sum());
+        counters.put("instances", INSTANCES.sum());
+        counters.put("boundMethods", BOUND_METHODS.sum());
+        counters.put("boxedDoubles", BOXED_DOUBLES.sum());
+        counters.put("stringConcatenations", CONCATENATIONS.sum());
+        counters.put("peakEnvironmentDepth", PEAK_DEPTH.get());
+        return counters;
+    }
+
+    public static String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, Long> counter : snapshot().entrySet()) {
+            if (json.length() > 1) json.append(", ");
+            json.append('"').append(counter.getKey()).append("\": ").append(counter.getValue());
+        }
+
+        return json.append("}").toString();
+    }
+
+    static void environment(int depth) {
+        ENVIRONMENTS.increment();
+        PEAK_DEPTH.accumulate(depth);
+    }
+}
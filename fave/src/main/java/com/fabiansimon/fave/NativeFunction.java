@@ -0,0 +1,21 @@
+package com.fabiansimon.fave;
+
+// Base for natives with a fixed arity. A native reports a runtime error by
+// throwing a RuntimeError without a token; the call site supplies one.
+public abstract class NativeFunction implements FaveCallable {
+    private final int arity;
+
+    NativeFunction(int arity) {
+        this.arity = arity;
+    }
+
+    @Override
+    public int arity() {
+        return arity;
+    }
+
+    @Override
+    public String toString() {
+        return "<native fn>";
+    }
+}
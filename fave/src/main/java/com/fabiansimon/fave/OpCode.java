@@ -0,0 +1,64 @@
+package com.fabiansimon.fave;
+
+// Instruction set of the bytecode VM. Operands follow the opcode inline in
+// the code array; the comment on each opcode lists them in order.
+final class OpCode {
+    static final int CONSTANT = 0;       // constant index
+    static final int NIL = 1;
+    static final int TRUE = 2;
+    static final int FALSE = 3;
+    static final int POP = 4;
+
+    static final int GET_LOCAL = 5;      // depth, slot
+    static final int SET_LOCAL = 6;      // depth, slot
+    static final int DEFINE_LOCAL = 7;   // slot
+    static final int GET_GLOBAL = 8;     // name constant
+    static final int SET_GLOBAL = 9;     // name constant
+    static final int DEFINE_GLOBAL = 10; // name constant
+
+    static final int GET_PROPERTY = 11;  // cache index
+    static final int SET_PROPERTY = 12;  // cache index
+    static final int GET_SUPER = 13;     // depth
+
+    static final int EQUAL = 14;
+    static final int NOT_EQUAL = 15;
+    static final int GREATER = 16;
+    static final int GREATER_EQUAL = 17;
+    static final int LESS = 18;
+    static final int LESS_EQUAL = 19;
+    static final int ADD = 20;
+    static final int SUBTRACT = 21;
+    static final int MULTIPLY = 22;
+    static final int DIVIDE = 23;
+    static final int NOT = 24;
+    static final int NEGATE = 25;
+
+    static final int PRINT = 26;
+    static final int JUMP = 27;          // forward offset
+    static final int JUMP_IF_FALSE = 28; // forward offset, leaves the condition
+    static final int LOOP = 29;          // backward offset
+    static final int CALL = 30;          // argument count
+    static final int CLOSURE = 31;       // function constant
+    static final int RETURN = 32;
+
+    static final int PUSH_SCOPE = 33;    // slot count
+    static final int POP_SCOPE = 34;
+
+    static final int CLASS = 35;         // name constant, pops the superclass
+    static final int INHERIT = 36;       // opens the 'super' scope
+    static final int METHOD = 37;        // name Symbol constant
+
+    static final int LIST = 38;          // element count
+    static final int MAP = 39;           // entry count, keys and values interleaved
+    static final int GET_INDEX = 40;
+    static final int SET_INDEX = 41;
+
+    static final int TAIL_CALL = 42;     // argument count, replaces the current frame
+
+    // Locals of a function no closure captures, in its frame's stack slots.
+    static final int GET_SLOT = 43;      // slot
+    static final int SET_SLOT = 44;      // slot
+    static final int DEFINE_SLOT = 45;   // slot
+
+    private OpCode() {}
+}
@@ -0,0 +1,385 @@
+package com.fabiansimon.fave;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Folds constant expressions and drops dead branches in resolved syntax trees.
+// Subtrees that don't change are returned as is; rebuilt nodes carry over the
+// annotations the Resolver put on the nodes they replace.
+public class Optimizer implements Expr.Visitor<Expr>, Stmt.Visitor<Stmt> {
+    private static final Object NOT_CONSTANT = new Object();
+
+    List<Stmt> optimize(List<Stmt> statements) {
+        List<Stmt> optimized = new ArrayList<>(statements.size());
+        boolean changed = false;
+
+        for (Stmt statement : statements) {
+            Stmt result = optimize(statement);
+            if (result != null) optimized.add(result);
+            changed |= result != statement;
+        }
+
+        return changed ? optimized : statements;
+    }
+
+    // Returns null for a statement that has no effect.
+    private Stmt optimize(Stmt statement) {
+        return statement.accept(this);
+    }
+
+    private Stmt optimizeNested(Stmt statement) {
+        Stmt result = optimize(statement);
+        if (result == null) return new Stmt.Expression(literal(null));
+        return result;
+    }
+
+    private Expr optimize(Expr expression) {
+        return expression.accept(this);
+    }
+
+    private Expr.Literal literal(Object value) {
+        Expr.Literal literal = new Expr.Literal(value);
+        literal.numeric = value instanceof Double;
+        return literal;
+    }
+
+    private <T extends Expr> T annotate(T rebuilt, Expr original) {
+        rebuilt.numeric = original.numeric;
+        return rebuilt;
+    }
+
+    @Override
+    public Expr visitAssignExpr(Expr.Assign expr) {
+        Expr value = optimize(expr.value);
+        if (value == expr.value) return expr;
+
+        Expr.Assign assign = annotate(new Expr.Assign(expr.name, value), expr);
+        assign.depth = expr.depth;
+        assign.slot = expr.slot;
+        return assign;
+    }
+
+    @Override
+    public Expr visitBinaryExpr(Expr.Binary expr) {
+        Expr left = optimize(expr.left);
+        Expr right = optimize(expr.right);
+
+        if (left instanceof Expr.Literal && right instanceof Expr.Literal) {
+            Object value = fold(expr.operator.type, ((Expr.Literal) left).value, ((Expr.Literal) right).value);
+            if (value != NOT_CONSTANT) return literal(value);
+        }
+
+        if (left == expr.left && right == expr.right) return expr;
+        return annotate(new Expr.Binary(left, expr.operator, right), expr);
+    }
+
+    // Mirrors Interpreter.visitBinaryExpr. Operands that would raise a runtime
+    // error, and division by zero, are left for the interpreter.
+    private Object fold(TokenType operator, Object left, Object right) {
+        boolean numbers = left instanceof Double && right instanceof Double;
+
+        switch (operator) {
+            case GREATER:
+                if (numbers) return (double) left > (double) right;
+                break;
+            case GREATER_EQUAL:
+                if (numbers) return (double) left >= (double) right;
+                break;
+            case LESS:
+                if (numbers) return (double) left < (double) right;
+                break;
+            case LESS_EQUAL:
+                if (numbers) return (double) left <= (double) right;
+                break;
+            case MINUS:
+                if (numbers) return (double) left - (double) right;
+                break;
+            case BANG_EQUAL:
+                return !Interpreter.isEqual(left, right);
+            case EQUAL_EQUAL:
+                return Interpreter.isEqual(left, right);
+            case STAR:
+                if (left instanceof String && right instanceof Double ||
+                    left instanceof Double && right instanceof String)
+                    return Interpreter.mulitplyDynamicString(left, right);
+                if (numbers) return (double) left * (double) right;
+                break;
+            case SLASH:
+                if (numbers && (double) right != 0) return (double) left / (double) right;
+                break;
+            case PLUS:
+                if (left instanceof String && right instanceof String) return (String) left + (String) right;
+                if (numbers) return (double) left + (double) right;
+                if (left instanceof String && right instanceof Double ||
+                    left instanceof Double && right instanceof String)
+                    return Interpreter.concatDynamicString(left, right).toString();
+                break;
+        }
+
+        return NOT_CONSTANT;
+    }
+
+    private List<Expr> optimizeAll(List<Expr> expressions) {
+        List<Expr> optimized = new ArrayList<>(expressions.size());
+        boolean changed = false;
+
+        for (Expr expression : expressions) {
+            Expr result = optimize(expression);
+            optimized.add(result);
+            changed |= result != expression;
+        }
+
+        return changed ? optimized : expressions;
+    }
+
+    @Override
+    public Expr visitCallExpr(Expr.Call expr) {
+        Expr callee = optimize(expr.callee);
+        List<Expr> arguments = optimizeAll(expr.arguments);
+
+        if (callee == expr.callee && arguments == expr.arguments) return expr;
+        return annotate(new Expr.Call(callee, expr.paren, arguments), expr);
+    }
+
+    @Override
+    public Expr visitGroupingExpr(Expr.Grouping expr) {
+        return optimize(expr.expression);
+    }
+
+    @Override
+    public Expr visitGetExpr(Expr.Get expr) {
+        Expr object = optimize(expr.object);
+        if (object == expr.object) return expr;
+        return annotate(new Expr.Get(object, expr.name), expr);
+    }
+
+    @Override
+    public Expr visitLiteralExpr(Expr.Literal expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitLogicalExpr(Expr.Logical expr) {
+        Expr left = optimize(expr.left);
+        Expr right = optimize(expr.right);
+
+        if (left instanceof Expr.Literal) {
+            boolean truthful = Interpreter.isTruthful(((Expr.Literal) left).value);
+            if (expr.operator.type == TokenType.OR) return truthful ? left : right;
+            return truthful ? right : left;
+        }
+
+        if (left == expr.left && right == expr.right) return expr;
+        return annotate(new Expr.Logical(left, expr.operator, right), expr);
+    }
+
+    @Override
+    public Expr visitUnaryExpr(Expr.Unary expr) {
+        Expr right = optimize(expr.right);
+
+        if (right instanceof Expr.Literal) {
+            Object value = ((Expr.Literal) right).value;
+            if (expr.operator.type == TokenType.BANG) return literal(!Interpreter.isTruthful(value));
+            if (value instanceof Double) return literal(-(double) value);
+        }
+
+        if (right == expr.right) return expr;
+        return annotate(new Expr.Unary(expr.operator, right), expr);
+    }
+
+    @Override
+    public Expr visitSetExpr(Expr.Set expr) {
+        Expr object = optimize(expr.object);
+        Expr value = optimize(expr.value);
+        if (object == expr.object && value == expr.value) return expr;
+        return annotate(new Expr.Set(object, expr.name, value), expr);
+    }
+
+    @Override
+    public Expr visitIndexExpr(Expr.Index expr) {
+        Expr object = optimize(expr.object);
+        Expr index = optimize(expr.index);
+        if (object == expr.object && index == expr.index) return expr;
+        return annotate(new Expr.Index(object, expr.bracket, index), expr);
+    }
+
+    @Override
+    public Expr visitSetIndexExpr(Expr.SetIndex expr) {
+        Expr object = optimize(expr.object);
+        Expr index = optimize(expr.index);
+        Expr value = optimize(expr.value);
+        if (object == expr.object && index == expr.index && value == expr.value) return expr;
+        return annotate(new Expr.SetIndex(object, expr.bracket, index, value), expr);
+    }
+
+    @Override
+    public Expr visitListLiteralExpr(Expr.ListLiteral expr) {
+        List<Expr> elements = optimizeAll(expr.elements);
+        if (elements == expr.elements) return expr;
+        return annotate(new Expr.ListLiteral(expr.bracket, elements), expr);
+    }
+
+    @Override
+    public Expr visitMapLiteralExpr(Expr.MapLiteral expr) {
+        List<Expr> keys = optimizeAll(expr.keys);
+        List<Expr> values = optimizeAll(expr.values);
+        if (keys == expr.keys && values == expr.values) return expr;
+        return annotate(new Expr.MapLiteral(expr.brace, keys, values), expr);
+    }
+
+    @Override
+    public Expr visitSuperExpr(Expr.Super expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitThisExpr(Expr.This expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitVariableExpr(Expr.Variable expr) {
+        return expr;
+    }
+
+    @Override
+    public Stmt visitBlockStmt(Stmt.Block stmt) {
+        List<Stmt> statements = optimize(stmt.statements);
+        if (statements == stmt.statements) return stmt;
+
+        Stmt.Block block = new Stmt.Block(statements);
+        block.slots = stmt.slots;
+        block.flattened = stmt.flattened;
+        return block;
+    }
+
+    @Override
+    public Stmt visitClassStmt(Stmt.Class stmt) {
+        List<Stmt.Function> methods = new ArrayList<>(stmt.methods.size());
+        boolean changed = false;
+
+        for (Stmt.Function method : stmt.methods) {
+            Stmt.Function result = optimizeFunction(method);
+            methods.add(result);
+            changed |= result != method;
+        }
+
+        if (!changed) return stmt;
+
+        Stmt.Class fClass = new Stmt.Class(stmt.name, stmt.superclass, methods);
+        fClass.slot = stmt.slot;
+        return fClass;
+    }
+
+    @Override
+    public Stmt visitExpressionStmt(Stmt.Expression stmt) {
+        Expr expression = optimize(stmt.expression);
+        if (expression instanceof Expr.Literal) return null;
+        if (expression == stmt.expression) return stmt;
+        return new Stmt.Expression(expression);
+    }
+
+    @Override
+    public Stmt visitFunctionStmt(Stmt.Function stmt) {
+        if (stmt.lazy != null) {
+            stmt.lazy.optimize = true;
+            return stmt;
+        }
+        return optimizeFunction(stmt);
+    }
+
+    private Stmt.Function optimizeFunction(Stmt.Function stmt) {
+        List<Stmt> body = optimize(stmt.body);
+        if (body == stmt.body) return stmt;
+
+        Stmt.Function function = new Stmt.Function(stmt.name, stmt.params, body);
+        function.slot = stmt.slot;
+        function.slots = stmt.slots;
+        function.isMethod = stmt.isMethod;
+        function.captured = stmt.captured;
+        return function;
+    }
+
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        Expr condition = optimize(stmt.condition);
+
+        if (condition instanceof Expr.Literal) {
+            if (Interpreter.isTruthful(((Expr.Literal) condition).value)) return optimize(stmt.thenBranch);
+            if (stmt.elseBranch != null) return optimize(stmt.elseBranch);
+            return null;
+        }
+
+        Stmt thenBranch = optimizeNested(stmt.thenBranch);
+        Stmt elseBranch = stmt.elseBranch == null ? null : optimizeNested(stmt.elseBranch);
+        if (condition == stmt.condition && thenBranch == stmt.thenBranch && elseBranch == stmt.elseBranch) {
+            return stmt;
+        }
+
+        return new Stmt.If(condition, thenBranch, elseBranch);
+    }
+
+    @Override
+    public Stmt visitPrintStmt(Stmt.Print stmt) {
+        Expr expression = optimize(stmt.expression);
+        if (expression == stmt.expression) return stmt;
+        return new Stmt.Print(expression);
+    }
+
+    @Override
+    public Stmt visitReturnStmt(Stmt.Return stmt) {
+        if (stmt.value == null) return stmt;
+
+        Expr value = optimize(stmt.value);
+        if (value == stmt.value) return stmt;
+
+        Stmt.Return result = new Stmt.Return(stmt.keyword, value);
+        result.tailCall = stmt.tailCall && value instanceof Expr.Call;
+        return result;
+    }
+
+    @Override
+    public Stmt visitVarStmt(Stmt.Var stmt) {
+        if (stmt.initializer == null) return stmt;
+
+        Expr initializer = optimize(stmt.initializer);
+        if (initializer == stmt.initializer) return stmt;
+
+        Stmt.Var var = new Stmt.Var(stmt.name, initializer);
+        var.slot = stmt.slot;
+        return var;
+    }
+
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        Expr condition = optimize(stmt.condition);
+        if (condition instanceof Expr.Literal && !Interpreter.isTruthful(((Expr.Literal) condition).value)) {
+            return null;
+        }
+
+        Stmt body = optimizeNested(stmt.body);
+        if (condition == stmt.condition && body == stmt.body) return stmt;
+        return new Stmt.While(condition, body);
+    }
+
+    // Specialised nodes come from the Specializer, which runs last.
+    @Override
+    public Expr visitLocalIncrementExpr(Expr.LocalIncrement expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitCompareLocalsExpr(Expr.CompareLocals expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitCompareLocalConstantExpr(Expr.CompareLocalConstant expr) {
+        return expr;
+    }
+
+    @Override
+    public Stmt visitCountedLoopStmt(Stmt.CountedLoop stmt) {
+        return stmt;
+    }
+}
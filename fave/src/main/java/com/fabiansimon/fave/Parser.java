@@ -1,14 +1,58 @@
+package com.fabiansimon.fave;
+
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 
 public class Parser {
     private static class ParseError extends RuntimeException {};
-    private final List<Token> tokens;
-    private int curr = 0;
-
-    public Parser(List<Token> tokens) {
+    private final Iterator<Token> tokens;
+    private final ErrorReporter reporter;
+    private Token current;
+    private Token previous;
+    // Read instead of the iterator, from position up to end. Tokens are only
+    // made for previous() and errors.
+    private final TokenBuffer buffer;
+    private int position;
+    private final int end;
+    // Whether top-level function bodies are left as tokens, see LazyBody.
+    private boolean lazy = false;
+    private int blocks = 0;
+
+    public Parser(List<Token> tokens, ErrorReporter reporter) {
+        this(tokens.iterator(), reporter);
+    }
+
+    // Pulls tokens one at a time, e.g. straight from a Scanner.
+    public Parser(Iterator<Token> tokens, ErrorReporter reporter) {
         this.tokens = tokens;
+        this.reporter = reporter;
+        this.current = tokens.next();
+        this.buffer = null;
+        this.end = 0;
+    }
+
+    Parser(TokenBuffer tokens, ErrorReporter reporter) {
+        this(tokens, 0, tokens.size(), reporter);
+    }
+
+    // Parses the tokens from start up to end as if they were followed by EOF.
+    Parser(TokenBuffer tokens, int start, int end, ErrorReporter reporter) {
+        this.tokens = null;
+        this.reporter = reporter;
+        this.buffer = tokens;
+        this.position = start;
+        this.end = end;
+    }
+
+    // Lazy bodies are ranges of the buffer, so this needs a TokenBuffer.
+    Parser lazy() {
+        if (buffer == null) throw new IllegalStateException("Lazy parsing needs a TokenBuffer.");
+        lazy = true;
+        return this;
     }
 
     List<Stmt> parse() {
@@ -184,6 +228,16 @@ public class Parser {
 
         consume(TokenType.RIGHT_PAREN, "Expect ')' after parameters");
         consume(TokenType.LEFT_BRACE, "Expect '{' before " + kind + " body.");
+
+        if (lazy && blocks == 0 && kind.equals("function")) {
+            LazyBody body = skipBody();
+            if (body != null) {
+                Stmt.Function function = new Stmt.Function(name, parameters, new ArrayList<>());
+                function.lazy = body;
+                return function;
+            }
+        }
+
         List<Stmt> body = block();
         return new Stmt.Function(name, parameters, body);
     }
@@ -191,14 +245,136 @@ public class Parser {
     private List<Stmt> block() {
         List<Stmt> statements = new ArrayList<>();
 
-        while (!check(TokenType.RIGHT_BRACE) && !isEnd()) {
-            statements.add(declaration());
+        blocks++;
+        try {
+            while (!check(TokenType.RIGHT_BRACE) && !isEnd()) {
+                statements.add(declaration());
+            }
+        } finally {
+            blocks--;
         }
 
         consume(TokenType.RIGHT_BRACE, "Expect '}' after block");
         return statements;
     }
 
+    // Skips to the brace closing the body, remembering where it starts and
+    // ends, without building any of it; see LazyBody. On the way it matches
+    // brackets and looks at each pair of neighbouring tokens for the
+    // commonest syntax errors: an operand followed by another operand or a
+    // statement, or ending a block, i.e. a missing ';' or operator. Returns
+    // null, back at the start, when it finds one or the brackets don't
+    // match, and the body is parsed as usual to report it. Anything else is
+    // reported when the body is loaded.
+    private LazyBody skipBody() {
+        int start = position;
+        // Closers still expected, innermost first. Braces of map literals are
+        // told apart from blocks, since only a map may end with an operand.
+        Deque<TokenType> open = new ArrayDeque<>();
+        Deque<Boolean> maps = new ArrayDeque<>();
+        TokenType last = TokenType.LEFT_BRACE;
+        boolean operand = false;
+
+        while (!isEnd()) {
+            TokenType type = peekType();
+            if (operand && (startsStatementOrOperand(type) ||
+                            type == TokenType.RIGHT_BRACE && (maps.isEmpty() || !maps.peek()))) {
+                position = start;
+                return null;
+            }
+
+            boolean closedMap = false;
+            switch (type) {
+                case LEFT_PAREN: open.push(TokenType.RIGHT_PAREN); break;
+                case LEFT_BRACKET: open.push(TokenType.RIGHT_BRACKET); break;
+                case LEFT_BRACE:
+                    open.push(TokenType.RIGHT_BRACE);
+                    maps.push(!opensBlock(last));
+                    break;
+                case RIGHT_PAREN:
+                case RIGHT_BRACKET:
+                case RIGHT_BRACE:
+                    if (open.isEmpty() && type == TokenType.RIGHT_BRACE) {
+                        LazyBody body = new LazyBody(buffer, start, position);
+                        skip();
+                        return body;
+                    }
+                    if (open.isEmpty() || open.pop() != type) {
+                        position = start;
+                        return null;
+                    }
+                    if (type == TokenType.RIGHT_BRACE) closedMap = maps.pop();
+                    break;
+            }
+
+            operand = endsOperand(type) || closedMap;
+            last = type;
+            skip();
+        }
+
+        position = start;
+        return null;
+    }
+
+    // A '{' after anything else starts a map literal.
+    private static boolean opensBlock(TokenType last) {
+        switch (last) {
+            case RIGHT_PAREN:  // if, while, for, fun and method headers
+            case IDENTIFIER:   // class A, class B < A
+            case LEFT_BRACE:
+            case RIGHT_BRACE:
+            case SEMICOLON:
+            case ELSE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // ')' is left out: it also closes the condition of if, while and for.
+    private static boolean endsOperand(TokenType type) {
+        switch (type) {
+            case IDENTIFIER:
+            case NUMBER:
+            case STRING:
+            case TRUE:
+            case FALSE:
+            case NIL:
+            case THIS:
+            case RIGHT_BRACKET:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean startsStatementOrOperand(TokenType type) {
+        switch (type) {
+            case IDENTIFIER:
+            case NUMBER:
+            case STRING:
+            case TRUE:
+            case FALSE:
+            case NIL:
+            case THIS:
+            case SUPER:
+            case CLASS:
+            case FUN:
+            case VAR:
+            case FOR:
+            case IF:
+            case ELSE:
+            case WHILE:
+            case PRINT:
+            case RETURN:
+            case BREAK:
+            case CONTINUE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     private Expr assignment() {
         Expr expr = or();
 
@@ -216,6 +392,11 @@ public class Parser {
                 return new Expr.Set(get.object, get.name, value);
             }
 
+            if (expr instanceof Expr.Index) {
+                Expr.Index index = (Expr.Index) expr;
+                return new Expr.SetIndex(index.object, index.bracket, index.index, value);
+            }
+
             error(equals, "Invalid assignment target.");
         }
 
@@ -333,6 +514,10 @@ public class Parser {
             } else if (isMatch(TokenType.DOT)) {
                 Token name = consume(TokenType.IDENTIFIER, "Expect property name after '.'.");
                 expr = new Expr.Get(expr, name);
+            } else if (isMatch(TokenType.LEFT_BRACKET)) {
+                Expr index = expression();
+                Token bracket = consume(TokenType.RIGHT_BRACKET, "Expect ']' after index.");
+                expr = new Expr.Index(expr, bracket, index);
             } else {
                 break;
             }
@@ -367,13 +552,44 @@ public class Parser {
             return new Expr.Grouping(expr);
         }
 
+        if (isMatch(TokenType.LEFT_BRACKET)) return listLiteral();
+        if (isMatch(TokenType.LEFT_BRACE)) return mapLiteral();
+
         throw error(peek(), "Expect expression");
     }
 
+    private Expr listLiteral() {
+        List<Expr> elements = new ArrayList<>();
+        if (!check(TokenType.RIGHT_BRACKET)) {
+            do {
+                elements.add(expression());
+            } while (isMatch(TokenType.COMMA));
+        }
+
+        Token bracket = consume(TokenType.RIGHT_BRACKET, "Expect ']' after list elements.");
+        return new Expr.ListLiteral(bracket, elements);
+    }
+
+    // Only reached in expression position; a '{' starting a statement is a block.
+    private Expr mapLiteral() {
+        List<Expr> keys = new ArrayList<>();
+        List<Expr> values = new ArrayList<>();
+        if (!check(TokenType.RIGHT_BRACE)) {
+            do {
+                keys.add(expression());
+                consume(TokenType.COLON, "Expect ':' after map key.");
+                values.add(expression());
+            } while (isMatch(TokenType.COMMA));
+        }
+
+        Token brace = consume(TokenType.RIGHT_BRACE, "Expect '}' after map entries.");
+        return new Expr.MapLiteral(brace, keys, values);
+    }
+
     private boolean isMatch(TokenType ...types) {
         for (TokenType type : types) {
             if (check(type)) {
-                advance();
+                skip();
                 return true;
             }
         }
@@ -388,33 +604,50 @@ public class Parser {
 
     private boolean check(TokenType type) {
         if (isEnd()) return false;
-        return peek().type == type;
+        return peekType() == type;
     }
 
     private Token advance() {
-        if (!isEnd()) curr++;
+        skip();
         return previous();
     }
 
+    private void skip() {
+        if (isEnd()) return;
+
+        if (buffer != null) {
+            position++;
+            previous = null;
+        } else {
+            previous = current;
+            current = tokens.next();
+        }
+    }
+
     private boolean isEnd() {
-        return peek().type == TokenType.EOF;
+        return peekType() == TokenType.EOF;
     }
 
-    private Token peek() {
-        return tokens.get(curr);
+    private TokenType peekType() {
+        if (buffer == null) return current.type;
+        return position < end ? buffer.type(position) : TokenType.EOF;
     }
 
-    private Token peek(int skip) {
-        return tokens.get(curr + skip);
+    private Token peek() {
+        if (buffer == null) return current;
+        if (position < end) return buffer.token(position);
+        // A lazy body ends at its closing brace, which errors should point at as they would without --lazy.
+        if (end < buffer.size()) return buffer.token(end);
+        return new Token(TokenType.EOF, "", null, buffer.line(end - 1));
     }
 
     private Token previous() {
-        if (curr > 0) return peek(-1);
-        return null;
+        if (previous == null && buffer != null) previous = buffer.token(position - 1);
+        return previous;
     }
 
     private ParseError error(Token token, String errorMessage) {
-        Fave.error(token, errorMessage);
+        reporter.error(token, errorMessage);
         return new ParseError();
     }
 
@@ -424,7 +657,7 @@ public class Parser {
         while (!isEnd()) {
             if (previous().type == TokenType.SEMICOLON) return;
 
-            switch (peek().type) {
+            switch (peekType()) {
                 case CLASS:
                 case FUN:
                 case VAR:
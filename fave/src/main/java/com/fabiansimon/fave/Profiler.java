@@ -0,0 +1,220 @@
+package com.fabiansimon.fave;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Instrumenting profiler for the tree-walking Interpreter, enabled with
+// 'fave --profile'. It builds a call tree of Fave functions, keeps per-function
+// and per-call-site totals, and writes the tree as collapsed stacks
+// ("outer;inner value" lines) that flame-graph tools read directly.
+public class Profiler {
+    private static final String ROOT = "<script>";
+
+    private static class Node {
+        final String name;
+        final Map<Stmt.Function, Node> children = new LinkedHashMap<>();
+        long exclusiveNanos = 0;
+
+        Node(String name) {
+            this.name = name;
+        }
+    }
+
+    private static class FunctionStats {
+        final Stmt.Function function;
+        long calls = 0;
+        long inclusiveNanos = 0;
+        long exclusiveNanos = 0;
+        long exclusiveBytes = 0;
+        long statements = 0;
+        // Activations on the stack, so recursion isn't counted twice inclusively.
+        int active = 0;
+
+        FunctionStats(Stmt.Function function) {
+            this.function = function;
+        }
+    }
+
+    private static class SiteStats {
+        final Expr.Call site;
+        long calls = 0;
+        long inclusiveNanos = 0;
+
+        SiteStats(Expr.Call site) {
+            this.site = site;
+        }
+    }
+
+    private static class Frame {
+        Node node;
+        FunctionStats stats;
+        long startNanos;
+        long startBytes;
+        long childNanos;
+        long childBytes;
+    }
+
+    private final Node root = new Node(ROOT);
+    private final FunctionStats script = new FunctionStats(null);
+    private final Map<Stmt.Function, FunctionStats> functions = new LinkedHashMap<>();
+    private final Map<Expr.Call, SiteStats> sites = new LinkedHashMap<>();
+    private final com.sun.management.ThreadMXBean threads;
+    private Frame[] frames = new Frame[64];
+    private int depth = 0;
+
+    Profiler() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean &&
+            ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threads = (com.sun.management.ThreadMXBean) bean;
+        } else {
+            threads = null;
+        }
+
+        script.calls = 1;
+        script.active = 1;
+        push(root, script);
+    }
+
+    void enter(Stmt.Function function) {
+        Frame caller = frames[depth - 1];
+        Node node = caller.node.children.get(function);
+        if (node == null) {
+            node = new Node(function.name.lexeme + ":" + function.name.line);
+            caller.node.children.put(function, node);
+        }
+
+        FunctionStats stats = functions.get(function);
+        if (stats == null) {
+            stats = new FunctionStats(function);
+            functions.put(function, stats);
+        }
+
+        stats.calls++;
+        stats.active++;
+        push(node, stats);
+    }
+
+    void exit() {
+        Frame frame = frames[--depth];
+        long elapsed = System.nanoTime() - frame.startNanos;
+        long allocated = allocatedBytes() - frame.startBytes;
+
+        long exclusive = elapsed - frame.childNanos;
+        frame.node.exclusiveNanos += exclusive;
+        frame.stats.exclusiveNanos += exclusive;
+        frame.stats.exclusiveBytes += allocated - frame.childBytes;
+        if (--frame.stats.active == 0) frame.stats.inclusiveNanos += elapsed;
+
+        if (depth > 0) {
+            frames[depth - 1].childNanos += elapsed;
+            frames[depth - 1].childBytes += allocated;
+        }
+    }
+
+    void statement() {
+        frames[depth - 1].stats.statements++;
+    }
+
+    void site(Expr.Call site, long startNanos) {
+        SiteStats stats = sites.get(site);
+        if (stats == null) {
+            stats = new SiteStats(site);
+            sites.put(site, stats);
+        }
+
+        stats.calls++;
+        stats.inclusiveNanos += System.nanoTime() - startNanos;
+    }
+
+    // Closes the frames still open, including the ones a runtime error left behind.
+    void finish() {
+        while (depth > 0) exit();
+    }
+
+    void writeCollapsed(Path path) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+            writeCollapsed(writer, root, root.name);
+        }
+    }
+
+    private void writeCollapsed(PrintWriter writer, Node node, String stack) {
+        long micros = node.exclusiveNanos / 1000;
+        if (micros > 0) writer.println(stack + " " + micros);
+
+        for (Node child : node.children.values()) {
+            writeCollapsed(writer, child, stack + ";" + child.name);
+        }
+    }
+
+    void report(PrintStream out) {
+        List<FunctionStats> byTime = new ArrayList<>(functions.values());
+        byTime.add(script);
+        byTime.sort((a, b) -> Long.compare(b.exclusiveNanos, a.exclusiveNanos));
+
+        out.printf("%-24s %10s %12s %12s %12s %12s%n",
+                "function", "calls", "incl ms", "excl ms", "alloc KB", "statements");
+        for (FunctionStats stats : byTime) {
+            String name = stats.function == null ? ROOT
+                    : stats.function.name.lexeme + ":" + stats.function.name.line;
+            out.printf("%-24s %10d %12.3f %12.3f %12d %12d%n", name, stats.calls,
+                    stats.inclusiveNanos / 1e6, stats.exclusiveNanos / 1e6,
+                    stats.exclusiveBytes / 1024, stats.statements);
+        }
+
+        List<SiteStats> bySite = new ArrayList<>(sites.values());
+        bySite.sort((a, b) -> Long.compare(b.inclusiveNanos, a.inclusiveNanos));
+
+        out.println();
+        out.printf("%-24s %10s %12s%n", "call site", "calls", "incl ms");
+        for (SiteStats stats : bySite) {
+            out.printf("%-24s %10d %12.3f%n", describe(stats.site), stats.calls, stats.inclusiveNanos / 1e6);
+        }
+    }
+
+    private String describe(Expr.Call site) {
+        String callee = "<expr>";
+        if (site.callee instanceof Expr.Variable) {
+            callee = ((Expr.Variable) site.callee).name.lexeme;
+        } else if (site.callee instanceof Expr.Get) {
+            callee = "." + ((Expr.Get) site.callee).name.lexeme;
+        } else if (site.callee instanceof Expr.Super) {
+            callee = "super." + ((Expr.Super) site.callee).method.lexeme;
+        }
+
+        return "line " + site.paren.line + " " + callee;
+    }
+
+    private void push(Node node, FunctionStats stats) {
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, depth * 2);
+        }
+
+        Frame frame = frames[depth];
+        if (frame == null) {
+            frame = new Frame();
+            frames[depth] = frame;
+        }
+        depth++;
+
+        frame.node = node;
+        frame.stats = stats;
+        frame.childNanos = 0;
+        frame.childBytes = 0;
+        frame.startBytes = allocatedBytes();
+        frame.startNanos = System.nanoTime();
+    }
+
+    private long allocatedBytes() {
+        return threads == null ? 0 : threads.getCurrentThreadAllocatedBytes();
+    }
+}
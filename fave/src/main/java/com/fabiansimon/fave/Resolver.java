@@ -0,0 +1,500 @@
+package com.fabiansimon.fave;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+import java.util.function.IntConsumer;
+
+public class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+    private final Stack<Scope> scopes = new Stack<>();
+    private final ErrorReporter reporter;
+    private FunctionType currentFunction = FunctionType.NONE;
+    // Functions entered so far; scopes remember which one they belong to.
+    private int functions = 0;
+    // Slots and depths are only final once the outermost scope has ended,
+    // since a closure late in a block can still stop it from being flattened.
+    private final List<Runnable> fixups = new ArrayList<>();
+
+    private enum FunctionType {
+        NONE,
+        INITIALIZER,
+        METHOD,
+        FUNCTION
+    }
+
+    private enum ClassType {
+        NONE,
+        CLASS,
+        SUBCLASS
+    }
+
+    private ClassType currClass = ClassType.NONE;
+
+    // A block scope whose variables no closure captures is flattened: its
+    // locals move into the enclosing scope's Environment and the block runs
+    // without one of its own. Function and class scopes, captured blocks and
+    // blocks at the top level keep theirs, so closures still get a fresh
+    // variable on every pass through a loop body.
+    private static class Scope {
+        final Scope enclosing;
+        final int function;
+        final SymbolMap<Local> names = new SymbolMap<>();
+        // Locals stored in this scope's Environment, in slot order.
+        final List<Local> locals = new ArrayList<>();
+        boolean captured = false;
+        boolean flattened = false;
+
+        Scope(Scope enclosing, int function) {
+            this.enclosing = enclosing;
+            this.function = function;
+        }
+    }
+
+    private static class Local {
+        // Scope whose Environment holds the local, and its slot there.
+        Scope home;
+        int slot;
+        boolean defined = false;
+    }
+
+    Resolver(ErrorReporter reporter) {
+        this.reporter = reporter;
+    }
+
+    void resolve(List<Stmt> statements) {
+        for (Stmt statement : statements) {
+            resolve(statement);
+        }
+    }
+
+    private void resolve(Stmt statement) {
+        statement.accept(this);
+    }
+
+    private void resolve(Expr expression) {
+        expression.accept(this);
+    }
+
+    // Resolves the body of a top-level function on its own, see LazyBody.
+    void resolveFunction(Stmt.Function function) {
+        resolveFunction(function, FunctionType.FUNCTION);
+    }
+
+    private void resolveFunction(Stmt.Function function, FunctionType type) {
+        FunctionType enclosingFunction = currentFunction;
+        currentFunction = type;
+
+        beginScope(++functions);
+        // Methods receive 'this' in slot 0 of their own frame, ahead of the parameters.
+        if (type == FunctionType.METHOD || type == FunctionType.INITIALIZER) {
+            function.isMethod = true;
+            defineImplicit(Symbol.THIS);
+        }
+        for (Token param : function.params) {
+            declare(param);
+            define(param);
+        }
+        resolve(function.body);
+        Scope scope = endScope(false);
+        function.slots = scope.locals.size();
+        // Only a closure reading the function's locals needs them in an Environment.
+        function.captured = scope.captured;
+        currentFunction = enclosingFunction;
+    }
+
+    private void beginScope(int function) {
+        scopes.add(new Scope(scopes.isEmpty() ? null : scopes.peek(), function));
+    }
+
+    private void beginScope() {
+        beginScope(scopes.isEmpty() ? 0 : scopes.peek().function);
+    }
+
+    private Scope endScope(boolean flattenable) {
+        Scope scope = scopes.pop();
+        if (flattenable && !scope.captured && scope.enclosing != null) {
+            scope.flattened = true;
+            for (Local local : scope.locals) {
+                local.home = scope.enclosing;
+                local.slot = scope.enclosing.locals.size();
+                scope.enclosing.locals.add(local);
+            }
+        }
+
+        if (scopes.isEmpty()) {
+            for (Runnable fixup : fixups) fixup.run();
+            fixups.clear();
+        }
+        return scope;
+    }
+
+    // Returns null for a global.
+    private Local declare(Token name) {
+        if (scopes.isEmpty()) return null;
+
+        Scope scope = scopes.peek();
+        if (scope.names.containsKey(name.symbol)) {
+            reporter.error(name, "Already a variable with this name in this scope.");
+            return scope.names.get(name.symbol);
+        }
+
+        return add(scope, name.symbol);
+    }
+
+    // The statement gets its slot once it is final; globals keep -1.
+    private void declareSlot(Token name, IntConsumer annotate) {
+        Local local = declare(name);
+        if (local != null) fixups.add(() -> annotate.accept(local.slot));
+    }
+
+    private Local add(Scope scope, Symbol name) {
+        Local local = new Local();
+        local.home = scope;
+        local.slot = scope.locals.size();
+        scope.locals.add(local);
+        scope.names.put(name, local);
+        return local;
+    }
+
+    private void define(Token name) {
+        if (scopes.isEmpty()) return;
+        scopes.peek().names.get(name.symbol).defined = true;
+    }
+
+    private void defineImplicit(Symbol name) {
+        add(scopes.peek(), name).defined = true;
+    }
+
+    // Returns null for a global. A local of an enclosing function is captured.
+    private Local resolveLocal(Token name) {
+        for (int i = scopes.size() - 1; i >= 0; i--) {
+            Scope scope = scopes.get(i);
+            Local local = scope.names.get(name.symbol);
+            if (local != null) {
+                if (scope.function != scopes.peek().function) scope.captured = true;
+                return local;
+            }
+        }
+
+        return null;
+    }
+
+    // Environments between the scope a name is used in and the one holding it.
+    private static int depth(Scope from, Local local) {
+        int depth = 0;
+        for (Scope scope = from; scope != local.home; scope = scope.enclosing) {
+            if (!scope.flattened) depth++;
+        }
+
+        return depth;
+    }
+
+    @Override
+    public Void visitAssignExpr(Expr.Assign expr) {
+        resolve(expr.value);
+        Local local = resolveLocal(expr.name);
+        if (local != null) {
+            Scope from = scopes.peek();
+            fixups.add(() -> {
+                expr.depth = depth(from, local);
+                expr.slot = local.slot;
+            });
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        resolve(expr.left);
+        resolve(expr.right);
+
+        // '-' only accepts numbers, '+' and '*' also work on strings. '/' is
+        // left out because dividing by zero yields a non-double.
+        switch (expr.operator.type) {
+            case MINUS:
+                expr.numeric = true;
+                break;
+            case PLUS:
+            case STAR:
+                expr.numeric = expr.left.numeric && expr.right.numeric;
+                break;
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitCallExpr(Expr.Call expr) {
+        resolve(expr.callee);
+
+        for (Expr arg : expr.arguments) {
+            resolve(arg);
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitGetExpr(Expr.Get expr) {
+        resolve(expr.object);
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        resolve(expr.expression);
+        expr.numeric = expr.expression.numeric;
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        expr.numeric = expr.value instanceof Double;
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(Expr.Logical expr) {
+        resolve(expr.left);
+        resolve(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        resolve(expr.right);
+        expr.numeric = expr.operator.type == TokenType.MINUS;
+        return null;
+    }
+
+    @Override
+    public Void visitSetExpr(Expr.Set expr) {
+        resolve(expr.value);
+        resolve(expr.object);
+        return null;
+    }
+
+    @Override
+    public Void visitIndexExpr(Expr.Index expr) {
+        resolve(expr.object);
+        resolve(expr.index);
+        return null;
+    }
+
+    @Override
+    public Void visitSetIndexExpr(Expr.SetIndex expr) {
+        resolve(expr.object);
+        resolve(expr.index);
+        resolve(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitListLiteralExpr(Expr.ListLiteral expr) {
+        for (Expr element : expr.elements) {
+            resolve(element);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitMapLiteralExpr(Expr.MapLiteral expr) {
+        for (int i = 0; i < expr.keys.size(); i++) {
+            resolve(expr.keys.get(i));
+            resolve(expr.values.get(i));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitSuperExpr(Expr.Super expr) {
+        if (currClass == ClassType.NONE) {
+            reporter.error(expr.keyword,
+                    "Can't use 'super' outside of a class.");
+        } else if (currClass != ClassType.SUBCLASS) {
+            reporter.error(expr.keyword,
+                    "Can't use 'super' in a class with no superclass.");
+        }
+
+        Local local = resolveLocal(expr.keyword);
+        if (local != null) {
+            Scope from = scopes.peek();
+            fixups.add(() -> expr.depth = depth(from, local));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitThisExpr(Expr.This expr) {
+        if (currClass == ClassType.NONE) {
+            reporter.error(expr.keyword, "Can't use 'this' outside of a class.");
+            return null;
+        }
+
+        Local local = resolveLocal(expr.keyword);
+        if (local != null) {
+            Scope from = scopes.peek();
+            fixups.add(() -> {
+                expr.depth = depth(from, local);
+                expr.slot = local.slot;
+            });
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        if (!scopes.isEmpty()) {
+            Local declared = scopes.peek().names.get(expr.name.symbol);
+            if (declared != null && !declared.defined) {
+                reporter.error(expr.name, "Can't read local variable in its own initializer.");
+            }
+        }
+
+        Local local = resolveLocal(expr.name);
+        if (local != null) {
+            Scope from = scopes.peek();
+            fixups.add(() -> {
+                expr.depth = depth(from, local);
+                expr.slot = local.slot;
+            });
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        beginScope();
+        resolve(stmt.statements);
+        Scope scope = endScope(true);
+        stmt.slots = scope.locals.size();
+        stmt.flattened = scope.flattened;
+        return null;
+    }
+
+    @Override
+    public Void visitClassStmt(Stmt.Class stmt) {
+        ClassType enclosingClass = currClass;
+        currClass = ClassType.CLASS;
+        declareSlot(stmt.name, slot -> stmt.slot = slot);
+        define(stmt.name);
+
+        if (stmt.superclass != null &&
+            stmt.name.symbol == stmt.superclass.name.symbol) {
+            reporter.error(stmt.superclass.name, "A class can't inherit from itself");
+        }
+
+        if (stmt.superclass != null) {
+            currClass = ClassType.SUBCLASS;
+            resolve(stmt.superclass);
+        }
+
+        if (stmt.superclass != null) {
+            beginScope();
+            defineImplicit(Symbol.SUPER);
+        }
+
+        for (Stmt.Function method : stmt.methods) {
+            FunctionType declaration = FunctionType.METHOD;
+            if (method.name.symbol == Symbol.INIT) {
+                declaration = FunctionType.INITIALIZER;
+            }
+            resolveFunction(method, declaration);
+        }
+
+        if (stmt.superclass != null) {
+            endScope(false);
+        }
+
+        currClass = enclosingClass;
+
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        resolve(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionStmt(Stmt.Function stmt) {
+        declareSlot(stmt.name, slot -> stmt.slot = slot);
+        define(stmt.name);
+
+        // A lazy body is resolved when it is parsed.
+        if (stmt.lazy == null) resolveFunction(stmt, FunctionType.FUNCTION);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        resolve(stmt.condition);
+        resolve(stmt.thenBranch);
+        if (stmt.elseBranch != null) resolve(stmt.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        resolve(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStmt(Stmt.Return stmt) {
+        if (currentFunction == FunctionType.NONE) {
+            reporter.error(stmt.keyword, "Can't return from top-level code.");
+        }
+
+        if (stmt.value != null) {
+            if (currentFunction == FunctionType.INITIALIZER) {
+                reporter.error(stmt.keyword, "Can't return a value from an initializer.");
+            }
+
+            resolve(stmt.value);
+
+            // 'return f(...)' can reuse the caller's frame.
+            stmt.tailCall = stmt.value instanceof Expr.Call && currentFunction != FunctionType.INITIALIZER;
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        declareSlot(stmt.name, slot -> stmt.slot = slot);
+        if (stmt.initializer != null) {
+            resolve(stmt.initializer);
+        }
+        define(stmt.name);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        resolve(stmt.condition);
+        resolve(stmt.body);
+        return null;
+    }
+
+    // Only the Specializer makes these, from nodes that are already resolved.
+    @Override
+    public Void visitLocalIncrementExpr(Expr.LocalIncrement expr) {
+        return null;
+    }
+
+    @Override
+    public Void visitCompareLocalsExpr(Expr.CompareLocals expr) {
+        return null;
+    }
+
+    @Override
+    public Void visitCompareLocalConstantExpr(Expr.CompareLocalConstant expr) {
+        return null;
+    }
+
+    @Override
+    public Void visitCountedLoopStmt(Stmt.CountedLoop stmt) {
+        return null;
+    }
+}
@@ -0,0 +1,88 @@
+package com.fabiansimon.fave;
+
+// String value made by concatenation. Ropes extending each other share one
+// StringBuilder and each remembers how much of it is theirs, so building a
+// string with s = s + x appends in place instead of copying s every time.
+// Only a rope ending where the buffer ends can append in place; any other
+// copies its part first. Flattened to a String, once, when printed, compared
+// or hashed. Short results stay plain Strings.
+public class Rope implements CharSequence {
+    private static final int MIN_LENGTH = 64;
+
+    private final StringBuilder buffer;
+    private final int length;
+    private String flat = null;
+
+    private Rope(StringBuilder buffer, int length) {
+        this.buffer = buffer;
+        this.length = length;
+    }
+
+    static boolean isString(Object value) {
+        return value instanceof String || value instanceof Rope;
+    }
+
+    static Object concat(CharSequence left, CharSequence right) {
+        if (Metrics.enabled) Metrics.CONCATENATIONS.increment();
+        String tail = right.toString();
+        if (left instanceof Rope) return ((Rope) left).append(tail);
+
+        int length = left.length() + tail.length();
+        if (length < MIN_LENGTH) return left.toString().concat(tail);
+
+        StringBuilder buffer = new StringBuilder(length).append(left).append(tail);
+        return new Rope(buffer, length);
+    }
+
+    private Rope append(String tail) {
+        synchronized (buffer) {
+            if (buffer.length() == length) {
+                buffer.append(tail);
+                return new Rope(buffer, buffer.length());
+            }
+
+            StringBuilder copy = new StringBuilder(length + tail.length())
+                .append(buffer, 0, length)
+                .append(tail);
+            return new Rope(copy, copy.length());
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        String text = flat;
+        if (text == null) {
+            synchronized (buffer) {
+                text = buffer.substring(0, length);
+            }
+            flat = text;
+        }
+
+        return text;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Rope && toString().equals(other.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+}
@@ -1,3 +1,5 @@
+package com.fabiansimon.fave;
+
 public class RuntimeError extends RuntimeException {
     final Token token;
 
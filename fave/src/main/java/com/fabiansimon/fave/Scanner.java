@@ -0,0 +1,249 @@
+package com.fabiansimon.fave;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Produces tokens on demand, so the Parser can start before the whole source
+// has been scanned, or all at once into a TokenBuffer. Lexemes are interned
+// per scanner.
+public class Scanner implements Iterator<Token> {
+    private final CharSequence src;
+    private final int length;
+    private final ErrorReporter reporter;
+    // The keywords' Symbols, held so their ids stay the ones below.
+    private static final List<Symbol> keywordSymbols = new ArrayList<>();
+    // Keyword type of each Symbol id, null for plain identifiers.
+    private static final TokenType[] keywords = keywords(new HashMap<>() {{
+        put("and",    TokenType.AND);
+        put("class",  TokenType.CLASS);
+        put("else",   TokenType.ELSE);
+        put("false",  TokenType.FALSE);
+        put("for",    TokenType.FOR);
+        put("fun",    TokenType.FUN);
+        put("if",     TokenType.IF);
+        put("nil",    TokenType.NIL);
+        put("or",     TokenType.OR);
+        put("print",  TokenType.PRINT);
+        put("return", TokenType.RETURN);
+        put("super",  TokenType.SUPER);
+        put("this",   TokenType.THIS);
+        put("true",   TokenType.TRUE);
+        put("var",    TokenType.VAR);
+        put("while",  TokenType.WHILE);
+    }});
+    private int start = 0;
+    private int curr = 0;
+    private int line = 1;
+    private boolean ended = false;
+    private final Lexemes lexemes;
+
+    public Scanner(CharSequence src, ErrorReporter reporter) {
+        this.src = src;
+        this.length = src.length();
+        this.reporter = reporter;
+        this.lexemes = new Lexemes(src);
+    }
+
+    private static TokenType[] keywords(Map<String, TokenType> names) {
+        TokenType[] keywords = new TokenType[0];
+        for (Map.Entry<String, TokenType> keyword : names.entrySet()) {
+            Symbol symbol = Symbol.intern(keyword.getKey());
+            keywordSymbols.add(symbol);
+            int id = symbol.id;
+            if (id >= keywords.length) keywords = Arrays.copyOf(keywords, id + 1);
+            keywords[id] = keyword.getValue();
+        }
+        return keywords;
+    }
+
+    List<Token> scanTokens() {
+        List<Token> tokens = new ArrayList<>();
+        while (hasNext()) tokens.add(next());
+        return tokens;
+    }
+
+    TokenBuffer scanBuffer() {
+        TokenBuffer tokens = new TokenBuffer(lexemes);
+        while (!isEnd()) {
+            start = curr;
+            TokenType type = scanToken();
+            if (type != null) tokens.add(type, start, curr - start, line);
+        }
+
+        ended = true;
+        tokens.add(TokenType.EOF, curr, 0, line);
+        return tokens;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !ended;
+    }
+
+    @Override
+    public Token next() {
+        if (ended) throw new NoSuchElementException();
+
+        while (!isEnd()) {
+            start = curr;
+            TokenType type = scanToken();
+            if (type != null) return lexemes.token(type, start, curr, line);
+        }
+
+        ended = true;
+        return new Token(TokenType.EOF, "", null, line);
+    }
+
+    // Returns null for whitespace, comments and characters it reports as errors.
+    private TokenType scanToken() {
+        char c = advance();
+
+        if (isDigit(c)) return digit();
+
+        switch (c) {
+            case '(': return TokenType.LEFT_PAREN;
+            case ')': return TokenType.RIGHT_PAREN;
+            case '{': return TokenType.LEFT_BRACE;
+            case '}': return TokenType.RIGHT_BRACE;
+            case '[': return TokenType.LEFT_BRACKET;
+            case ']': return TokenType.RIGHT_BRACKET;
+            case ',': return TokenType.COMMA;
+            case ':': return TokenType.COLON;
+            case '.': return TokenType.DOT;
+            case '-': return TokenType.MINUS;
+            case '+': return TokenType.PLUS;
+            case ';': return TokenType.SEMICOLON;
+            case '*': return TokenType.STAR;
+            case '!':
+                return isMatch('=') ? TokenType.BANG_EQUAL : TokenType.BANG;
+            case '=':
+                return isMatch('=') ? TokenType.EQUAL_EQUAL : TokenType.EQUAL;
+            case '<':
+                return isMatch('=') ? TokenType.LESS_EQUAL : TokenType.LESS;
+            case '>':
+                return isMatch('=') ? TokenType.GREATER_EQUAL : TokenType.GREATER;
+            case '/': {
+                if (isMatch('/'))
+                    skipLineComment();
+                else if (isMatch('*'))
+                    skipBlockComment();
+                else
+                    return TokenType.SLASH;
+                return null;
+            }
+            case '"': return string();
+
+            case ' ':
+            case '\r':
+            case '\t':
+                return null;
+
+            case '\n':
+                line++;
+                return null;
+
+            default: {
+                if (isAlpha(c)) return identifier();
+
+                reporter.error(line, "Unexpected Character");
+                return null;
+            }
+        }
+    }
+
+    private TokenType string() {
+        while (peek() != '"' && !isEnd()) {
+            if (peek() == '\n') line++;
+            advance();
+        }
+        if (isEnd()) {
+            reporter.error(line, "Unterminated string.");
+            return null;
+        }
+
+        advance(); // The closing ""
+        return TokenType.STRING;
+    }
+
+    private TokenType digit() {
+        while (isDigit(peek())) advance();
+
+        if (peek() == '.' && isDigit(peek(1))) {
+            advance();
+
+            while (isDigit(peek())) advance();
+        }
+
+        return TokenType.NUMBER;
+    }
+
+    private TokenType identifier() {
+        while (isAlphaNumeric(peek())) advance();
+
+        int id = lexemes.symbol(start, curr).id;
+        TokenType type = id < keywords.length ? keywords[id] : null;
+        if (type == null) type = TokenType.IDENTIFIER;
+
+        return type;
+    }
+
+    private char advance() {
+        return src.charAt(curr++);
+    }
+
+    private char peek() {
+        if (isEnd()) return '\0';
+        return src.charAt(curr);
+    }
+
+    private char peek(int skip) {
+        if (curr + skip >= length) return '\0';
+        return src.charAt(curr + skip);
+    }
+
+    private void skipLineComment() {
+        while (peek() != '\n' && !isEnd()) advance();
+    }
+
+    private void skipBlockComment() {
+        while (peek() != '*' && peek(1) != '/' && !isEnd()) {
+            if (advance() == '\n') line++;
+        }
+        if (!isEnd()) {
+            advance();
+            advance();
+        }
+    }
+
+    private boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private boolean isAlpha(char c) {
+        return  (c >= 'a' && c <= 'z') ||
+                (c >= 'A' && c <= 'Z') ||
+                 c == '_';
+    }
+
+    private boolean isAlphaNumeric(char c) {
+        return isAlpha(c) || isDigit(c);
+    }
+
+    private boolean isMatch(char expected) {
+        if (isEnd()) return false;
+        if (src.charAt(curr) != expected) return false;
+
+        curr++;
+        return true;
+    }
+
+    private boolean isEnd() {
+        return curr >= length;
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.fabiansimon.fave;
+
+import java.util.List;
+
+// A compiled script. Its syntax tree is resolved and never changes after
+// compilation, apart from the thread-safe inline caches, so one Script can be
+// run by many contexts at once.
+public final class Script {
+    final String name;
+    final List<Stmt> statements;
+
+    Script(String name, List<Stmt> statements) {
+        this.name = name;
+        this.statements = statements;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
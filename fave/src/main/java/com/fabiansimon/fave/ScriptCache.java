@@ -0,0 +1,83 @@
+package com.fabiansimon.fave;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+// On-disk cache of resolved syntax trees, keyed by a hash of the script source.
+// Entries are written to a temporary file and moved into place, so processes
+// running the same script at once never see half an entry.
+public class ScriptCache {
+    private final Path directory;
+
+    ScriptCache(Path directory) {
+        this.directory = directory;
+    }
+
+    // $FAVE_CACHE_DIR, else the XDG cache directory.
+    static ScriptCache open() {
+        String dir = System.getenv("FAVE_CACHE_DIR");
+        if (dir != null) return new ScriptCache(Paths.get(dir));
+
+        String xdg = System.getenv("XDG_CACHE_HOME");
+        Path base = xdg != null ? Paths.get(xdg) : Paths.get(System.getProperty("user.home"), ".cache");
+        return new ScriptCache(base.resolve("fave"));
+    }
+
+    // Trees differ with and without the Optimizer, so the flag is part of the key.
+    String key(ByteBuffer source, boolean optimized) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((byte) AstWriter.VERSION);
+            digest.update((byte) (optimized ? 1 : 0));
+            digest.update(source.duplicate());
+
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest.digest()) key.append(String.format("%02x", b));
+            return key.toString();
+        } catch (NoSuchAlgorithmException error) {
+            throw new IllegalStateException(error);
+        }
+    }
+
+    // Returns null when there is no usable entry.
+    List<Stmt> load(String key) {
+        try (FileChannel channel = FileChannel.open(directory.resolve(key), StandardOpenOption.READ)) {
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new AstReader(bytes).read();
+        } catch (IOException error) {
+            return null;
+        }
+    }
+
+    // Failing to write the cache is not an error; the script just runs uncached.
+    void store(String key, List<Stmt> statements) {
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, key, ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                new AstWriter(out).write(statements);
+            }
+            Files.move(temp, directory.resolve(key), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException error) {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+}
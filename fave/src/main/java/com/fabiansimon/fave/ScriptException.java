@@ -0,0 +1,18 @@
+package com.fabiansimon.fave;
+
+import java.util.List;
+
+// Compile or runtime errors of a script run through the embedding API, in the
+// format the command line prints them.
+public class ScriptException extends Exception {
+    private final List<String> errors;
+
+    ScriptException(List<String> errors) {
+        super(String.join("\n", errors));
+        this.errors = errors;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
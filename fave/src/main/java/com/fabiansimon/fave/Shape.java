@@ -0,0 +1,37 @@
+package com.fabiansimon.fave;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Hidden class describing the field layout of a FaveInstance. Instances of a
+// class that assign their fields in the same order share one Shape, so a
+// field can be located by identity check on the shape plus an array index.
+public class Shape {
+    private final SymbolMap<Integer> slots;
+    // Instances of one class may be built on several threads at once.
+    private final Map<Symbol, Shape> transitions = new ConcurrentHashMap<>();
+    final int size;
+
+    Shape() {
+        this.slots = new SymbolMap<>();
+        this.size = 0;
+    }
+
+    private Shape(Shape parent, Symbol field) {
+        this.slots = new SymbolMap<>(parent.slots);
+        this.slots.put(field, parent.size);
+        this.size = parent.size + 1;
+    }
+
+    int indexOf(Symbol field) {
+        Integer slot = slots.get(field);
+        return slot == null ? -1 : slot;
+    }
+
+    Shape withField(Symbol field) {
+        Shape next = transitions.get(field);
+        if (next != null) return next;
+
+        return transitions.computeIfAbsent(field, name -> new Shape(this, name));
+    }
+}
@@ -0,0 +1,122 @@
+package com.fabiansimon.fave;
+
+import java.util.List;
+
+// Replaces the shapes hot loops are made of with specialised nodes that the
+// Interpreter runs with fewer visits and boxes:
+//
+//   i = i + 1, i = i - 2          LocalIncrement
+//   i < n, i >= 0                 CompareLocals, CompareLocalConstant
+//   for (...; cond; i = i + 1)    CountedLoop
+//
+// Every specialised node keeps the node it replaces. It falls back to that
+// node when its operands aren't numbers, so string concatenation and runtime
+// errors stay as they were; other visitors just visit the original. Runs after
+// the Optimizer, and only for the Interpreter: the VM and the script cache
+// work on unspecialised trees.
+public class Specializer extends Optimizer {
+    List<Stmt> specialize(List<Stmt> statements) {
+        return optimize(statements);
+    }
+
+    @Override
+    public Stmt visitFunctionStmt(Stmt.Function stmt) {
+        if (stmt.lazy != null) {
+            stmt.lazy.specialize = true;
+            return stmt;
+        }
+        return super.visitFunctionStmt(stmt);
+    }
+
+    @Override
+    public Expr visitAssignExpr(Expr.Assign expr) {
+        Expr result = super.visitAssignExpr(expr);
+        if (!(result instanceof Expr.Assign)) return result;
+
+        Expr.Assign assign = (Expr.Assign) result;
+        if (assign.depth < 0 || !(assign.value instanceof Expr.Binary)) return assign;
+
+        Expr.Binary value = (Expr.Binary) assign.value;
+        switch (value.operator.type) {
+            case PLUS:
+                if (isLocal(value.left, assign.depth, assign.slot) && isNumber(value.right)) {
+                    return new Expr.LocalIncrement(assign, assign.depth, assign.slot, number(value.right));
+                }
+                if (isNumber(value.left) && isLocal(value.right, assign.depth, assign.slot)) {
+                    return new Expr.LocalIncrement(assign, assign.depth, assign.slot, number(value.left));
+                }
+                break;
+            case MINUS:
+                if (isLocal(value.left, assign.depth, assign.slot) && isNumber(value.right)) {
+                    return new Expr.LocalIncrement(assign, assign.depth, assign.slot, -number(value.right));
+                }
+                break;
+        }
+
+        return assign;
+    }
+
+    @Override
+    public Expr visitBinaryExpr(Expr.Binary expr) {
+        Expr result = super.visitBinaryExpr(expr);
+        if (!(result instanceof Expr.Binary)) return result;
+
+        Expr.Binary binary = (Expr.Binary) result;
+        switch (binary.operator.type) {
+            case GREATER:
+            case GREATER_EQUAL:
+            case LESS:
+            case LESS_EQUAL:
+                break;
+            default:
+                return binary;
+        }
+
+        if (!isLocal(binary.left)) return binary;
+        Expr.Variable left = (Expr.Variable) binary.left;
+
+        if (isLocal(binary.right)) {
+            Expr.Variable right = (Expr.Variable) binary.right;
+            return new Expr.CompareLocals(binary, left.depth, left.slot, right.depth, right.slot);
+        }
+        if (isNumber(binary.right)) {
+            return new Expr.CompareLocalConstant(binary, left.depth, left.slot, number(binary.right));
+        }
+
+        return binary;
+    }
+
+    // Parser.forStatement leaves 'while (cond) { body; increment; }', with a
+    // block the Resolver flattened since it declares nothing.
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        Stmt result = super.visitWhileStmt(stmt);
+        if (!(result instanceof Stmt.While)) return result;
+
+        Stmt.While loop = (Stmt.While) result;
+        if (!(loop.body instanceof Stmt.Block)) return loop;
+
+        Stmt.Block block = (Stmt.Block) loop.body;
+        if (!block.flattened || block.statements.size() != 2) return loop;
+        if (!(block.statements.get(1) instanceof Stmt.Expression)) return loop;
+
+        Expr increment = ((Stmt.Expression) block.statements.get(1)).expression;
+        return new Stmt.CountedLoop(loop, loop.condition, block.statements.get(0), increment);
+    }
+
+    private static boolean isLocal(Expr expr) {
+        return expr instanceof Expr.Variable && ((Expr.Variable) expr).depth >= 0;
+    }
+
+    private static boolean isLocal(Expr expr, int depth, int slot) {
+        return isLocal(expr) && ((Expr.Variable) expr).depth == depth && ((Expr.Variable) expr).slot == slot;
+    }
+
+    private static boolean isNumber(Expr expr) {
+        return expr instanceof Expr.Literal && ((Expr.Literal) expr).value instanceof Double;
+    }
+
+    private static double number(Expr expr) {
+        return (double) ((Expr.Literal) expr).value;
+    }
+}
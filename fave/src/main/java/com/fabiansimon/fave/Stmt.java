@@ -1,3 +1,5 @@
+package com.fabiansimon.fave;
+
 import java.util.List;
 
 abstract class Stmt {
@@ -11,6 +13,7 @@ abstract class Stmt {
     R visitReturnStmt(Return stmt);
     R visitVarStmt(Var stmt);
     R visitWhileStmt(While stmt);
+    R visitCountedLoopStmt(CountedLoop stmt);
   }
 
   static class Block extends Stmt {
@@ -24,6 +27,8 @@ abstract class Stmt {
     }
 
     final List<Stmt> statements;
+    int slots = 0;
+    boolean flattened = false;
   }
 
   static class Class extends Stmt {
@@ -41,6 +46,7 @@ abstract class Stmt {
     final Token name;
     final Expr.Variable superclass;
     final List<Stmt.Function> methods;
+    int slot = -1;
   }
 
   static class Expression extends Stmt {
@@ -71,6 +77,13 @@ abstract class Stmt {
     final Token name;
     final List<Token> params;
     final List<Stmt> body;
+    int slot = -1;
+    int slots = 0;
+    boolean isMethod = false;
+    boolean captured = false;
+    int calls = 0;
+    Jit.Code compiled = null;
+    LazyBody lazy = null;
   }
 
   static class If extends Stmt {
@@ -116,6 +129,7 @@ abstract class Stmt {
 
     final Token keyword;
     final Expr value;
+    boolean tailCall = false;
   }
 
   static class Var extends Stmt {
@@ -131,6 +145,7 @@ abstract class Stmt {
 
     final Token name;
     final Expr initializer;
+    int slot = -1;
   }
 
   static class While extends Stmt {
@@ -148,5 +163,24 @@ abstract class Stmt {
     final Stmt body;
   }
 
+  static class CountedLoop extends Stmt {
+    CountedLoop(While original, Expr condition, Stmt body, Expr increment) {
+      this.original = original;
+      this.condition = condition;
+      this.body = body;
+      this.increment = increment;
+    }
+
+    @Override
+    <R> R accept(Visitor<R> visitor) {
+      return visitor.visitCountedLoopStmt(this);
+    }
+
+    final While original;
+    final Expr condition;
+    final Stmt body;
+    final Expr increment;
+  }
+
   abstract <R> R accept(Visitor<R> visitor);
 }
@@ -0,0 +1,14 @@
+package com.fabiansimon.fave;
+
+// Method a super expression resolved to, and the superclass it was found on.
+// Kept in one immutable object so threads sharing the syntax tree can't see
+// the class of one lookup paired with the method of another.
+public class SuperCache {
+    final FaveClass superclass;
+    final FaveFunction method;
+
+    SuperCache(FaveClass superclass, FaveFunction method) {
+        this.superclass = superclass;
+        this.method = method;
+    }
+}
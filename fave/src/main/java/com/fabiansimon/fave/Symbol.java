@@ -0,0 +1,76 @@
+package com.fabiansimon.fave;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Identifier interned once per process. Names that are equal share one
+// Symbol, so tables keyed by identifiers compare references and hash the id
+// instead of hashing and comparing strings. The Scanner interns every
+// identifier as it reads it. The table holds symbols weakly, so names no
+// longer used by any script are collected; a name interned again gets a new
+// id, which is only ever used as a hash.
+public final class Symbol {
+    private static final Map<String, Ref> TABLE = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Symbol> COLLECTED = new ReferenceQueue<>();
+    private static final AtomicInteger NEXT = new AtomicInteger();
+
+    static final Symbol INIT = intern("init");
+    static final Symbol THIS = intern("this");
+    static final Symbol SUPER = intern("super");
+
+    private static final class Ref extends WeakReference<Symbol> {
+        final String name;
+
+        Ref(Symbol symbol) {
+            super(symbol, COLLECTED);
+            this.name = symbol.name;
+        }
+    }
+
+    final String name;
+    final int id;
+
+    private Symbol(String name, int id) {
+        this.name = name;
+        this.id = id;
+    }
+
+    static Symbol intern(String name) {
+        Ref ref = TABLE.get(name);
+        Symbol symbol = ref == null ? null : ref.get();
+        if (symbol != null) return symbol;
+
+        expunge();
+        Symbol[] interned = new Symbol[1];
+        TABLE.compute(name, (key, old) -> {
+            interned[0] = old == null ? null : old.get();
+            if (interned[0] != null) return old;
+
+            interned[0] = new Symbol(key, NEXT.getAndIncrement());
+            return new Ref(interned[0]);
+        });
+        return interned[0];
+    }
+
+    // Drops the entries of collected symbols, unless the name was interned
+    // again since.
+    private static void expunge() {
+        for (Reference<? extends Symbol> ref; (ref = COLLECTED.poll()) != null; ) {
+            TABLE.remove(((Ref) ref).name, ref);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,82 @@
+package com.fabiansimon.fave;
+
+import java.util.function.BiConsumer;
+
+// Open-addressed map keyed by Symbol, probing from the symbol's id. Not
+// thread safe; tables shared between threads are filled before they are
+// published and only read afterwards.
+public class SymbolMap<V> {
+    private Symbol[] keys;
+    private Object[] values;
+    private int size = 0;
+
+    SymbolMap() {
+        keys = new Symbol[8];
+        values = new Object[8];
+    }
+
+    SymbolMap(SymbolMap<V> other) {
+        keys = other.keys.clone();
+        values = other.values.clone();
+        size = other.size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(Symbol key) {
+        int mask = keys.length - 1;
+        for (int i = key.id & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) return (V) values[i];
+        }
+
+        return null;
+    }
+
+    boolean containsKey(Symbol key) {
+        int mask = keys.length - 1;
+        for (int i = key.id & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) return true;
+        }
+
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<Symbol, V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) action.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    void put(Symbol key, V value) {
+        int mask = keys.length - 1;
+        int i = key.id & mask;
+        while (keys[i] != null && keys[i] != key) i = (i + 1) & mask;
+
+        if (keys[i] == null) {
+            keys[i] = key;
+            if (++size * 2 > keys.length) {
+                values[i] = value;
+                grow();
+                return;
+            }
+        }
+        values[i] = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void grow() {
+        Symbol[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new Symbol[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) put(oldKeys[i], (V) oldValues[i]);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.fabiansimon.fave;
+
+public class Token {
+    final TokenType type;
+    final String lexeme;
+    final Object literal;
+    final int line;
+    // Interned lexeme of a name: an identifier, 'this' or 'super'. Null for other tokens.
+    final Symbol symbol;
+
+    Token(TokenType type, String lexeme, Object literal, int line) {
+        this(type, lexeme, literal, line, isName(type) ? Symbol.intern(lexeme) : null);
+    }
+
+    Token(TokenType type, String lexeme, Object literal, int line, Symbol symbol) {
+        this.type = type;
+        this.lexeme = lexeme;
+        this.literal = literal;
+        this.line = line;
+        this.symbol = symbol;
+    }
+
+    static boolean isName(TokenType type) {
+        return type == TokenType.IDENTIFIER || type == TokenType.THIS || type == TokenType.SUPER;
+    }
+
+    public String toString() {
+        return type + "\t" + lexeme + "\t" + literal + "\t" + line;
+    }
+}
@@ -0,0 +1,56 @@
+package com.fabiansimon.fave;
+
+import java.util.Arrays;
+
+// Every token of a source as parallel arrays: the type, where the lexeme
+// starts and how long it is, and the line. A Token object, with its lexeme
+// and literal read back from the source, is only made when the Parser needs
+// one for a node or an error. See Scanner.scanBuffer.
+final class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final Lexemes lexemes;
+    private byte[] types = new byte[1024];
+    private int[] starts = new int[1024];
+    private int[] lengths = new int[1024];
+    private int[] lines = new int[1024];
+    private int count = 0;
+
+    TokenBuffer(Lexemes lexemes) {
+        this.lexemes = lexemes;
+    }
+
+    void add(TokenType type, int start, int length, int line) {
+        if (count == types.length) {
+            int capacity = count * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+        }
+
+        types[count] = (byte) type.ordinal();
+        starts[count] = start;
+        lengths[count] = length;
+        lines[count] = line;
+        count++;
+    }
+
+    int size() {
+        return count;
+    }
+
+    TokenType type(int index) {
+        return TYPES[types[index]];
+    }
+
+    int line(int index) {
+        return lines[index];
+    }
+
+    // Synchronized since lazy bodies are parsed from whichever thread calls them first.
+    synchronized Token token(int index) {
+        int start = starts[index];
+        return lexemes.token(type(index), start, start + lengths[index], lines[index]);
+    }
+}
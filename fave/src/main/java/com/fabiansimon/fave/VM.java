@@ -0,0 +1,528 @@
+package com.fabiansimon.fave;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Stack-based virtual machine executing the output of BytecodeCompiler.
+// Temporaries live on the value stack, and so do the locals of functions no
+// closure captures, in slots above where the callee was. Other variables
+// live in the same slot-indexed environments the Interpreter uses.
+public class VM {
+    private static final int MAX_FRAMES = 10000;
+
+    // Frames are reused by the next call at the same depth, so calls don't
+    // allocate one each.
+    private static class CallFrame {
+        CompiledFunction function;
+        VMInstance receiver;
+        // Where the callee was, and the result goes.
+        int base;
+        // Stack index of local slot 0.
+        int slots;
+        Environment environment;
+        int ip;
+
+        void enter(CompiledFunction function, VMInstance receiver, Environment environment, int base, int slots) {
+            this.function = function;
+            this.receiver = receiver;
+            this.environment = environment;
+            this.base = base;
+            this.slots = slots;
+            this.ip = 0;
+        }
+    }
+
+    final Environment globals;
+    private Object[] stack = new Object[256];
+    private int sp = 0;
+    private CallFrame[] frames = new CallFrame[64];
+    private int frameCount = 0;
+
+    private final PrintStream out;
+
+    VM() {
+        this(System.out);
+    }
+
+    VM(PrintStream out) {
+        this.globals = new Environment();
+        this.out = out;
+        Interpreter.defineNatives(globals);
+        Concurrency.defineNatives(globals, function -> new VM(this).runTask(function));
+    }
+
+    // Runs a spawned function on another thread, sharing the parent's globals.
+    private VM(VM parent) {
+        this.globals = parent.globals;
+        this.out = parent.out;
+    }
+
+    private Object runTask(Object function) {
+        if (function instanceof FaveCallable && ((FaveCallable) function).arity() == 0) {
+            return ((FaveCallable) function).call(null, new ArrayList<>());
+        }
+        if (!(function instanceof VMFunction) || ((VMFunction) function).function.arity != 0) {
+            throw new RuntimeError(null, "Can only spawn functions without parameters.");
+        }
+
+        VMFunction task = (VMFunction) function;
+        push(task);
+        pushFrame(null, 0, task, task.receiver, 0);
+        run();
+        return stack[--sp];
+    }
+
+    void interpret(CompiledFunction script, ErrorReporter reporter) {
+        nextFrame().enter(script, null, globals, sp, sp);
+
+        try {
+            run();
+        } catch (RuntimeError error) {
+            reporter.runtimeError(error);
+        } finally {
+            Arrays.fill(stack, 0, sp, null);
+            sp = 0;
+            frameCount = 0;
+        }
+    }
+
+    private void run() {
+        CallFrame frame = frames[frameCount - 1];
+        int[] code = frame.function.chunk.code;
+        List<Object> constants = frame.function.chunk.constants;
+        List<InlineCache> caches = frame.function.chunk.caches;
+        Environment environment = frame.environment;
+        int slots = frame.slots;
+        int ip = frame.ip;
+
+        while (true) {
+            int start = ip;
+            switch (code[ip++]) {
+                case OpCode.CONSTANT:
+                    push(constants.get(code[ip++]));
+                    break;
+                case OpCode.NIL:
+                    push(null);
+                    break;
+                case OpCode.TRUE:
+                    push(true);
+                    break;
+                case OpCode.FALSE:
+                    push(false);
+                    break;
+                case OpCode.POP:
+                    sp--;
+                    break;
+
+                case OpCode.GET_LOCAL: {
+                    int depth = code[ip++];
+                    push(environment.getAt(depth, code[ip++]));
+                    break;
+                }
+                case OpCode.SET_LOCAL: {
+                    int depth = code[ip++];
+                    environment.assignAt(depth, code[ip++], stack[sp - 1]);
+                    break;
+                }
+                case OpCode.DEFINE_LOCAL:
+                    environment.defineAt(code[ip++], stack[--sp]);
+                    break;
+                case OpCode.GET_SLOT:
+                    push(stack[slots + code[ip++]]);
+                    break;
+                case OpCode.SET_SLOT:
+                    stack[slots + code[ip++]] = stack[sp - 1];
+                    break;
+                case OpCode.DEFINE_SLOT:
+                    stack[slots + code[ip++]] = stack[--sp];
+                    break;
+                case OpCode.GET_GLOBAL:
+                    push(globals.get(frame.function.chunk.tokens[start]));
+                    ip++;
+                    break;
+                case OpCode.SET_GLOBAL:
+                    globals.assign(frame.function.chunk.tokens[start], stack[sp - 1]);
+                    ip++;
+                    break;
+                case OpCode.DEFINE_GLOBAL:
+                    globals.define((String) constants.get(code[ip++]), stack[--sp]);
+                    break;
+
+                case OpCode.GET_PROPERTY: {
+                    InlineCache cache = caches.get(code[ip++]);
+                    Object object = stack[sp - 1];
+                    if (!(object instanceof VMInstance)) {
+                        throw error(frame, start, "Only instances have properties");
+                    }
+
+                    stack[sp - 1] = ((VMInstance) object).get(frame.function.chunk.tokens[start], cache);
+                    break;
+                }
+                case OpCode.SET_PROPERTY: {
+                    InlineCache cache = caches.get(code[ip++]);
+                    Object object = stack[sp - 2];
+                    if (!(object instanceof VMInstance)) {
+                        throw error(frame, start, "Only instances have field");
+                    }
+
+                    Object value = stack[--sp];
+                    ((VMInstance) object).set(frame.function.chunk.tokens[start], value, cache);
+                    stack[sp - 1] = value;
+                    break;
+                }
+                case OpCode.GET_SUPER: {
+                    VMClass superclass = (VMClass) environment.getAt(code[ip++], 0);
+                    Token name = frame.function.chunk.tokens[start];
+                    VMFunction method = superclass.findMethod(name.symbol);
+                    if (method == null) {
+                        throw error(frame, start, "Undefined property '" + name.lexeme + "'.");
+                    }
+                    stack[sp - 1] = method.bind((VMInstance) stack[sp - 1]);
+                    break;
+                }
+
+                case OpCode.LIST: {
+                    int count = code[ip++];
+                    FaveList list = new FaveList(count);
+                    for (int i = sp - count; i < sp; i++) list.add(stack[i]);
+                    sp -= count;
+                    push(list);
+                    break;
+                }
+                case OpCode.MAP: {
+                    int count = code[ip++];
+                    FaveMap map = new FaveMap();
+                    for (int i = sp - 2 * count; i < sp; i += 2) map.put(stack[i], stack[i + 1]);
+                    sp -= 2 * count;
+                    push(map);
+                    break;
+                }
+                case OpCode.GET_INDEX: {
+                    Object index = stack[--sp];
+                    stack[sp - 1] = Interpreter.getIndex(frame.function.chunk.tokens[start], stack[sp - 1], index);
+                    break;
+                }
+                case OpCode.SET_INDEX: {
+                    Object value = stack[--sp];
+                    Object index = stack[--sp];
+                    Interpreter.setIndex(frame.function.chunk.tokens[start], stack[sp - 1], index, value);
+                    stack[sp - 1] = value;
+                    break;
+                }
+
+                case OpCode.EQUAL: {
+                    Object right = stack[--sp];
+                    stack[sp - 1] = Interpreter.isEqual(stack[sp - 1], right);
+                    break;
+                }
+                case OpCode.NOT_EQUAL: {
+                    Object right = stack[--sp];
+                    stack[sp - 1] = !Interpreter.isEqual(stack[sp - 1], right);
+                    break;
+                }
+                case OpCode.GREATER: {
+                    checkNumberOperands(frame, start);
+                    double right = (double) stack[--sp];
+                    stack[sp - 1] = (double) stack[sp - 1] > right;
+                    break;
+                }
+                case OpCode.GREATER_EQUAL: {
+                    checkNumberOperands(frame, start);
+                    double right = (double) stack[--sp];
+                    stack[sp - 1] = (double) stack[sp - 1] >= right;
+                    break;
+                }
+                case OpCode.LESS: {
+                    checkNumberOperands(frame, start);
+                    double right = (double) stack[--sp];
+                    stack[sp - 1] = (double) stack[sp - 1] < right;
+                    break;
+                }
+                case OpCode.LESS_EQUAL: {
+                    checkNumberOperands(frame, start);
+                    double right = (double) stack[--sp];
+                    stack[sp - 1] = (double) stack[sp - 1] <= right;
+                    break;
+                }
+                case OpCode.ADD: {
+                    Object right = stack[--sp];
+                    Object left = stack[sp - 1];
+                    if (left instanceof Double && right instanceof Double) {
+                        stack[sp - 1] = Interpreter.box((double) left + (double) right);
+                    } else if (Rope.isString(left) && Rope.isString(right)) {
+                        stack[sp - 1] = Rope.concat((CharSequence) left, (CharSequence) right);
+                    } else if (Rope.isString(left) && right instanceof Double ||
+                               left instanceof Double && Rope.isString(right)) {
+                        stack[sp - 1] = Interpreter.concatDynamicString(left, right);
+                    } else {
+                        throw error(frame, start, "Operands not supported.");
+                    }
+                    break;
+                }
+                case OpCode.SUBTRACT: {
+                    checkNumberOperands(frame, start);
+                    double right = (double) stack[--sp];
+                    stack[sp - 1] = Interpreter.box((double) stack[sp - 1] - right);
+                    break;
+                }
+                case OpCode.MULTIPLY: {
+                    Object right = stack[sp - 1];
+                    Object left = stack[sp - 2];
+                    if (Rope.isString(left) && right instanceof Double ||
+                        left instanceof Double && Rope.isString(right)) {
+                        stack[--sp - 1] = Interpreter.mulitplyDynamicString(left, right);
+                        break;
+                    }
+
+                    checkNumberOperands(frame, start);
+                    sp--;
+                    stack[sp - 1] = Interpreter.box((double) left * (double) right);
+                    break;
+                }
+                case OpCode.DIVIDE: {
+                    checkNumberOperands(frame, start);
+                    double right = (double) stack[--sp];
+                    stack[sp - 1] = right == 0 ? (Object) 42 : Interpreter.box((double) stack[sp - 1] / right);
+                    break;
+                }
+                case OpCode.NOT:
+                    stack[sp - 1] = !Interpreter.isTruthful(stack[sp - 1]);
+                    break;
+                case OpCode.NEGATE:
+                    if (!(stack[sp - 1] instanceof Double)) {
+                        throw error(frame, start, "Operand must be a number.");
+                    }
+                    stack[sp - 1] = Interpreter.box(-(double) stack[sp - 1]);
+                    break;
+
+                case OpCode.PRINT:
+                    out.println(Interpreter.stringify(stack[--sp]));
+                    break;
+                case OpCode.JUMP:
+                    ip += code[ip] + 1;
+                    break;
+                case OpCode.JUMP_IF_FALSE:
+                    if (Interpreter.isTruthful(stack[sp - 1])) {
+                        ip++;
+                    } else {
+                        ip += code[ip] + 1;
+                    }
+                    break;
+                case OpCode.LOOP:
+                    ip = ip + 1 - code[ip];
+                    break;
+
+                case OpCode.CALL: {
+                    int argCount = code[ip++];
+                    frame.ip = ip;
+                    frame.environment = environment;
+
+                    if (!callValue(frame, start, argCount)) break;
+
+                    frame = frames[frameCount - 1];
+                    code = frame.function.chunk.code;
+                    constants = frame.function.chunk.constants;
+                    caches = frame.function.chunk.caches;
+                    environment = frame.environment;
+                    slots = frame.slots;
+                    ip = frame.ip;
+                    break;
+                }
+                case OpCode.TAIL_CALL: {
+                    int argCount = code[ip++];
+
+                    // Slide the callee and its arguments down to where this
+                    // frame's result would go and drop the frame, so the call
+                    // takes its place instead of stacking on top of it.
+                    int callee = sp - argCount - 1;
+                    System.arraycopy(stack, callee, stack, frame.base, argCount + 1);
+                    Arrays.fill(stack, frame.base + argCount + 1, sp, null);
+                    sp = frame.base + argCount + 1;
+                    frameCount--;
+
+                    // A native or class call leaves its result like RETURN would.
+                    if (!callValue(frame, start, argCount) && frameCount == 0) return;
+
+                    frame = frames[frameCount - 1];
+                    code = frame.function.chunk.code;
+                    constants = frame.function.chunk.constants;
+                    caches = frame.function.chunk.caches;
+                    environment = frame.environment;
+                    slots = frame.slots;
+                    ip = frame.ip;
+                    break;
+                }
+                case OpCode.CLOSURE:
+                    push(new VMFunction((CompiledFunction) constants.get(code[ip++]), environment));
+                    break;
+                case OpCode.RETURN: {
+                    Object result = stack[--sp];
+                    if (frame.function.isInitializer) result = frame.receiver;
+
+                    Arrays.fill(stack, frame.base, sp, null);
+                    sp = frame.base;
+                    frameCount--;
+                    push(result);
+                    if (frameCount == 0) return;
+
+                    frame = frames[frameCount - 1];
+                    code = frame.function.chunk.code;
+                    constants = frame.function.chunk.constants;
+                    caches = frame.function.chunk.caches;
+                    environment = frame.environment;
+                    slots = frame.slots;
+                    ip = frame.ip;
+                    break;
+                }
+
+                case OpCode.PUSH_SCOPE:
+                    environment = new Environment(environment, code[ip++]);
+                    break;
+                case OpCode.POP_SCOPE:
+                    environment = environment.enclosing;
+                    break;
+
+                case OpCode.CLASS: {
+                    String name = (String) constants.get(code[ip++]);
+                    stack[sp - 1] = new VMClass(name, (VMClass) stack[sp - 1]);
+                    break;
+                }
+                case OpCode.INHERIT: {
+                    if (!(stack[sp - 1] instanceof VMClass)) {
+                        throw error(frame, start, "Superclass mus be a class");
+                    }
+                    environment = new Environment(environment, 1);
+                    environment.defineAt(0, stack[sp - 1]);
+                    break;
+                }
+                case OpCode.METHOD: {
+                    Symbol name = (Symbol) constants.get(code[ip++]);
+                    VMFunction method = (VMFunction) stack[--sp];
+                    ((VMClass) stack[sp - 1]).methods.put(name, method);
+                    break;
+                }
+            }
+        }
+    }
+
+    // Returns true when a new frame was pushed and the caller has to switch to it.
+    private boolean callValue(CallFrame frame, int start, int argCount) {
+        Object callee = stack[sp - argCount - 1];
+
+        if (callee instanceof VMFunction) {
+            VMFunction function = (VMFunction) callee;
+            checkArity(frame, start, function.function.arity, argCount);
+            pushFrame(frame, start, function, function.receiver, argCount);
+            return true;
+        }
+
+        if (callee instanceof VMClass) {
+            VMClass vClass = (VMClass) callee;
+            VMInstance instance = new VMInstance(vClass);
+            VMFunction initializer = vClass.findMethod(Symbol.INIT);
+            if (initializer == null) {
+                checkArity(frame, start, 0, argCount);
+                sp -= argCount + 1;
+                push(instance);
+                return false;
+            }
+
+            checkArity(frame, start, initializer.function.arity, argCount);
+            pushFrame(frame, start, initializer, instance, argCount);
+            return true;
+        }
+
+        if (callee instanceof FaveCallable) {
+            FaveCallable function = (FaveCallable) callee;
+            checkArity(frame, start, function.arity(), argCount);
+
+            List<Object> args = new ArrayList<>(Arrays.asList(stack).subList(sp - argCount, sp));
+            sp -= argCount + 1;
+            // Natives never re-enter the tree-walking interpreter.
+            try {
+                push(function.call(null, args));
+            } catch (RuntimeError error) {
+                if (error.token == null) throw error(frame, start, error.getMessage());
+                throw error;
+            }
+            return false;
+        }
+
+        throw error(frame, start, "Can only call functions and classes.");
+    }
+
+    private void pushFrame(CallFrame frame, int start, VMFunction function, VMInstance receiver, int argCount) {
+        if (frameCount == MAX_FRAMES) {
+            throw error(frame, start, "Stack overflow.");
+        }
+
+        CompiledFunction compiled = function.function;
+        int base = sp - argCount - 1;
+        Environment environment;
+        int slots;
+        if (compiled.captured) {
+            environment = new Environment(function.closure, compiled.slots);
+            int first = 0;
+            if (compiled.isMethod) {
+                environment.defineAt(0, receiver);
+                first = 1;
+            }
+            for (int i = 0; i < argCount; i++) {
+                environment.defineAt(first + i, stack[sp - argCount + i]);
+            }
+            Arrays.fill(stack, base, sp, null);
+            sp = base;
+            slots = sp;
+        } else {
+            // The arguments already sit in the first slots; a method's
+            // receiver takes the callee's place just below them.
+            environment = function.closure;
+            slots = base + 1;
+            if (compiled.isMethod) {
+                stack[base] = receiver;
+                slots = base;
+            }
+            int end = slots + compiled.slots;
+            if (end > stack.length) stack = Arrays.copyOf(stack, Math.max(end, stack.length * 2));
+            Arrays.fill(stack, sp, end, null);
+            sp = end;
+        }
+
+        nextFrame().enter(compiled, receiver, environment, base, slots);
+    }
+
+    private CallFrame nextFrame() {
+        if (frameCount == frames.length) {
+            frames = Arrays.copyOf(frames, frameCount * 2);
+        }
+
+        CallFrame frame = frames[frameCount];
+        if (frame == null) frame = frames[frameCount] = new CallFrame();
+        frameCount++;
+        return frame;
+    }
+
+    private void checkArity(CallFrame frame, int start, int arity, int argCount) {
+        if (argCount != arity) {
+            throw error(frame, start, "Expect " + arity + " arguments but got " + argCount + " instead.");
+        }
+    }
+
+    private void checkNumberOperands(CallFrame frame, int start) {
+        if (stack[sp - 2] instanceof Double && stack[sp - 1] instanceof Double) return;
+        throw error(frame, start, "Operands must be numbers.");
+    }
+
+    private void push(Object value) {
+        if (sp == stack.length) {
+            stack = Arrays.copyOf(stack, sp * 2);
+        }
+        stack[sp++] = value;
+    }
+
+    private RuntimeError error(CallFrame frame, int start, String message) {
+        return new RuntimeError(frame.function.chunk.tokens[start], message);
+    }
+}
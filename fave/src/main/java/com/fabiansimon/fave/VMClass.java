@@ -0,0 +1,26 @@
+package com.fabiansimon.fave;
+
+public class VMClass {
+    final String name;
+    final VMClass superclass;
+    // Own methods over a copy of the superclass's table, as in FaveClass.
+    // Filled by the class's METHOD instructions before it is published.
+    final SymbolMap<VMFunction> methods;
+    // Instances start out with no fields; the shapes they grow into hang off this one.
+    final Shape rootShape = new Shape();
+
+    VMClass(String name, VMClass superclass) {
+        this.name = name;
+        this.superclass = superclass;
+        this.methods = superclass == null ? new SymbolMap<>() : new SymbolMap<>(superclass.methods);
+    }
+
+    VMFunction findMethod(Symbol name) {
+        return methods.get(name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,27 @@
+package com.fabiansimon.fave;
+
+public class VMFunction {
+    final CompiledFunction function;
+    final Environment closure;
+    final VMInstance receiver;
+
+    VMFunction(CompiledFunction function, Environment closure) {
+        this(function, closure, null);
+    }
+
+    private VMFunction(CompiledFunction function, Environment closure, VMInstance receiver) {
+        this.function = function;
+        this.closure = closure;
+        this.receiver = receiver;
+    }
+
+    VMFunction bind(VMInstance instance) {
+        if (Metrics.enabled) Metrics.BOUND_METHODS.increment();
+        return new VMFunction(function, closure, instance);
+    }
+
+    @Override
+    public String toString() {
+        return function.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.fabiansimon.fave;
+
+import java.util.Arrays;
+
+// Instance of a class declared in the VM. Fields are laid out by Shape and
+// shared between threads the same way as FaveInstance's.
+public class VMInstance {
+    final VMClass vClass;
+    private volatile Shape shape;
+    private Object[] fields = new Object[4];
+
+    VMInstance(VMClass vClass) {
+        this.vClass = vClass;
+        this.shape = vClass.rootShape;
+        if (Metrics.enabled) Metrics.INSTANCES.increment();
+    }
+
+    // Reads the shape before fields, so fields holds every field it has.
+    // Entries for names that are no field carry no method, since the cache
+    // holds the Interpreter's functions; the class's table finds it in one
+    // probe.
+    Object get(Token name, InlineCache cache) {
+        Shape shape = this.shape;
+        InlineCache.Entry entry = cache.find(shape);
+        if (entry != null) {
+            if (entry.slot >= 0) return fields[entry.slot];
+            return bindMethod(name);
+        }
+
+        int slot = shape.indexOf(name.symbol);
+        cache.add(shape, slot, null, null);
+        if (slot >= 0) return fields[slot];
+        return bindMethod(name);
+    }
+
+    private VMFunction bindMethod(Token name) {
+        VMFunction method = vClass.findMethod(name.symbol);
+        if (method == null) {
+            throw new RuntimeError(name, "Undefined property '" + name.lexeme + "'.");
+        }
+
+        return method.bind(this);
+    }
+
+    synchronized void set(Token name, Object value, InlineCache cache) {
+        Shape shape = this.shape;
+        InlineCache.Entry entry = cache.find(shape);
+        if (entry != null) {
+            if (entry.transition != null) {
+                add(entry.transition, value);
+            } else {
+                fields[entry.slot] = value;
+            }
+            return;
+        }
+
+        int slot = shape.indexOf(name.symbol);
+        if (slot >= 0) {
+            cache.add(shape, slot, null, null);
+            fields[slot] = value;
+            return;
+        }
+
+        Shape next = shape.withField(name.symbol);
+        cache.add(shape, next.size - 1, null, next);
+        add(next, value);
+    }
+
+    // Moves to a shape with one more field holding value. Stores fields and
+    // the value before the volatile shape, see get.
+    private void add(Shape next, Object value) {
+        if (next.size > fields.length) {
+            fields = Arrays.copyOf(fields, fields.length * 2);
+        }
+        fields[next.size - 1] = value;
+        shape = next;
+    }
+
+    @Override
+    public String toString() {
+        return vClass.name + " instance";
+    }
+}
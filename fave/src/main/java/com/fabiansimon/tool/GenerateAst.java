@@ -12,43 +12,56 @@ public class GenerateAst {
       System.exit(64);
     }
     String outputDir = args[0];
-    defineAst(outputDir, "Expr", Arrays.asList(
-      "Assign   : Token name, Expr value",
+    // Every expression carries whether the Resolver proved it yields a number.
+    defineAst(outputDir, "Expr", "boolean numeric = false", Arrays.asList(
+      "Assign   : Token name, Expr value : int depth = -1, int slot = -1",
       "Binary   : Expr left, Token operator, Expr right",
       "Call     : Expr callee, Token paren, List<Expr> arguments",
       "Grouping : Expr expression",
-      "Get      : Expr object, Token name",
+      "Get      : Expr object, Token name : InlineCache cache = new InlineCache()",
+      "Index    : Expr object, Token bracket, Expr index",
+      "ListLiteral : Token bracket, List<Expr> elements",
       "Literal  : Object value",
       "Logical  : Expr left, Token operator, Expr right",
+      "MapLiteral : Token brace, List<Expr> keys, List<Expr> values",
       "Unary    : Token operator, Expr right",
-      "Set      : Expr object, Token name, Expr value",
-      "Super    : Token keyword, Token method",
-      "This     : Token keyword",
-      "Variable : Token name"
+      "Set      : Expr object, Token name, Expr value : InlineCache cache = new InlineCache()",
+      "SetIndex : Expr object, Token bracket, Expr index, Expr value",
+      "Super    : Token keyword, Token method : int depth = -1, SuperCache cache = null",
+      "This     : Token keyword : int depth = -1, int slot = -1",
+      "Variable : Token name : int depth = -1, int slot = -1",
+      "LocalIncrement : Assign original, int depth, int slot, double amount",
+      "CompareLocals : Binary original, int leftDepth, int leftSlot," +
+                     " int rightDepth, int rightSlot",
+      "CompareLocalConstant : Binary original, int depth, int slot, double constant"
     ));
 
-    defineAst(outputDir, "Stmt", Arrays.asList(
-      "Block      : List<Stmt> statements",
+    defineAst(outputDir, "Stmt", null, Arrays.asList(
+      "Block      : List<Stmt> statements : int slots = 0, boolean flattened = false",
       "Class      : Token name, Expr.Variable superclass," +
-                  " List<Stmt.Function> methods",
+                  " List<Stmt.Function> methods : int slot = -1",
       "Expression : Expr expression",
       "Function   : Token name, List<Token> params," +
-                  " List<Stmt> body",
+                  " List<Stmt> body : int slot = -1, int slots = 0, boolean isMethod = false," +
+                  " boolean captured = false, int calls = 0, Jit.Code compiled = null, LazyBody lazy = null",
       "If         : Expr condition, Stmt thenBranch," +
                   " Stmt elseBranch",
       "Print      : Expr expression",
-      "Return     : Token keyword, Expr value",
-      "Var        : Token name, Expr initializer",
-      "While      : Expr condition, Stmt body"
+      "Return     : Token keyword, Expr value : boolean tailCall = false",
+      "Var        : Token name, Expr initializer : int slot = -1",
+      "While      : Expr condition, Stmt body",
+      "CountedLoop : While original, Expr condition, Stmt body, Expr increment"
     ));
   }
 
   private static void defineAst(
-      String outputDir, String baseName, List<String> types)
+      String outputDir, String baseName, String baseFields, List<String> types)
       throws IOException {
     String path = outputDir + "/" + baseName + ".java";
     PrintWriter writer = new PrintWriter(path, "UTF-8");
 
+    writer.println("package com.fabiansimon.fave;");
+    writer.println();
     writer.println("import java.util.List;");
     writer.println();
     writer.println("abstract class " + baseName + " {");
@@ -58,14 +71,25 @@ public class GenerateAst {
     // The AST classes.
     for (String type : types) {
       writer.println();
-      String className = type.split(":")[0].trim();
-      String fields = type.split(":")[1].trim(); 
-      defineType(writer, baseName, className, fields);
+      String[] parts = type.split(":");
+      String className = parts[0].trim();
+      String fields = parts[1].trim();
+      // An optional third section lists mutable fields filled in after
+      // parsing: Resolver results and the Interpreter's per-node caches.
+      String resolved = parts.length > 2 ? parts[2].trim() : null;
+      defineType(writer, baseName, className, fields, resolved);
     }
     
     writer.println();
     writer.println("  abstract <R> R accept(Visitor<R> visitor);");
 
+    if (baseFields != null) {
+      writer.println();
+      for (String field : baseFields.split(", ")) {
+        writer.println("  " + field + ";");
+      }
+    }
+
     writer.println("}");
     writer.close();
   }
@@ -85,7 +109,7 @@ public class GenerateAst {
 
   private static void defineType(
       PrintWriter writer, String baseName,
-      String className, String fieldList) {
+      String className, String fieldList, String resolvedList) {
     writer.println("  static class " + className + " extends " +
         baseName + " {");
 
@@ -113,6 +137,12 @@ public class GenerateAst {
       writer.println("    final " + field + ";");
     }
 
+    if (resolvedList != null) {
+      for (String field : resolvedList.split(", ")) {
+        writer.println("    " + field + ";");
+      }
+    }
+
     writer.println("  }");
   }
 }
\ No newline at end of file
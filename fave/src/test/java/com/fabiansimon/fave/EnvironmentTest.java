@@ -0,0 +1,34 @@
+package com.fabiansimon.fave;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class EnvironmentTest {
+    @Test
+    void keepsGlobalsPerEnvironment() {
+        Environment first = new Environment();
+        Environment second = new Environment();
+        first.define("shared", 1.0);
+        second.define("shared", 2.0);
+        first.define("only", "first");
+
+        assertEquals(1.0, first.lookup(Symbol.intern("shared")));
+        assertEquals(2.0, second.lookup(Symbol.intern("shared")));
+        assertNull(second.lookup(Symbol.intern("only")));
+    }
+
+    @Test
+    void keepsEveryGlobalAsTheTableGrows() {
+        Environment globals = new Environment();
+        for (int i = 0; i < 5000; i++) globals.define("g" + i, (double) i);
+
+        Token name = new Token(TokenType.IDENTIFIER, "g42", null, 1);
+        globals.assign(name, "changed");
+        for (int i = 0; i < 5000; i++) {
+            Object expected = i == 42 ? "changed" : (Object) (double) i;
+            assertEquals(expected, globals.lookup(Symbol.intern("g" + i)));
+        }
+    }
+}
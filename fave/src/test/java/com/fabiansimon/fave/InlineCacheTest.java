@@ -0,0 +1,65 @@
+package com.fabiansimon.fave;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class InlineCacheTest {
+    @Test
+    void keepsUpToFourShapes() {
+        InlineCache cache = new InlineCache();
+        Shape[] shapes = shapes(4);
+        for (int i = 0; i < shapes.length; i++) cache.add(shapes[i], i, null, null);
+
+        for (int i = 0; i < shapes.length; i++) assertEquals(i, cache.find(shapes[i]).slot);
+    }
+
+    @Test
+    void evictsOldestShapeWhenFull() {
+        InlineCache cache = new InlineCache();
+        Shape[] shapes = shapes(5);
+        for (int i = 0; i < shapes.length; i++) cache.add(shapes[i], i, null, null);
+
+        assertNull(cache.find(shapes[0]));
+        for (int i = 1; i < shapes.length; i++) assertEquals(i, cache.find(shapes[i]).slot);
+
+        cache.add(shapes[0], 0, null, null);
+        assertEquals(0, cache.find(shapes[0]).slot);
+    }
+
+    @Test
+    void goesMegamorphicAfterRepeatedEvictions() {
+        InlineCache cache = new InlineCache();
+        Shape[] shapes = shapes(12);
+        for (int i = 0; i < shapes.length; i++) cache.add(shapes[i], i, null, null);
+
+        for (Shape shape : shapes) assertNull(cache.find(shape));
+
+        Shape later = new Shape();
+        cache.add(later, 0, null, null);
+        assertNull(cache.find(later));
+    }
+
+    @Test
+    void megamorphicSiteStillReadsFields() {
+        InlineCache cache = new InlineCache();
+        Symbol name = Symbol.intern("value");
+        for (int i = 0; i < 12; i++) {
+            FaveInstance instance = new FaveInstance(new FaveClass("C" + i, new SymbolMap<>(), null));
+            Token token = new Token(TokenType.IDENTIFIER, name.name, null, 1);
+            instance.set(token, (double) i, cache);
+            assertEquals((double) i, instance.get(token, cache));
+        }
+
+        Shape later = new Shape();
+        cache.add(later, 0, null, null);
+        assertNull(cache.find(later));
+    }
+
+    private static Shape[] shapes(int count) {
+        Shape[] shapes = new Shape[count];
+        for (int i = 0; i < count; i++) shapes[i] = new Shape();
+        return shapes;
+    }
+}
@@ -0,0 +1,50 @@
+package com.fabiansimon.fave;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class InterpreterTest {
+    private static final String CALLED = "fun f() { print \"called\"; return 1; }\nvar s = \"a\";\nvar l = [\"a\"];\n";
+
+    @Test
+    void evaluatesRightOperandBeforeRejectingLeft() {
+        for (String expression : List.of("\"a\" < f()", "s >= f()", "s - f()", "l[0] - f()", "s - f() - 1")) {
+            ErrorReporter reporter = new ErrorReporter();
+            assertEquals("called\n", run(CALLED + "print " + expression + ";\n", reporter), expression);
+            assertEquals(List.of("Operands must be numbers.\n[line 4]"), reporter.messages(), expression);
+        }
+    }
+
+    @Test
+    void reportsErrorInRightOperandFirst() {
+        ErrorReporter reporter = new ErrorReporter();
+        run(CALLED + "print s < missing;\n", reporter);
+        assertEquals(List.of("Undefined variable 'missing'.\n[line 4]"), reporter.messages());
+    }
+
+    @Test
+    void printsSelfContainingListsAndMaps() {
+        String source = "var a = [1]; append(a, a); print a;\n"
+                + "var m = {\"k\": 1}; m[\"self\"] = m; m[\"list\"] = [m, a]; print m;\n"
+                + "var b = [a, a]; print b;\n";
+        ErrorReporter reporter = new ErrorReporter();
+        assertEquals("[1, [...]]\n"
+                + "{k: 1, self: {...}, list: [{...}, [1, [...]]]}\n"
+                + "[[1, [...]], [1, [...]]]\n", run(source, reporter));
+        assertEquals(List.of(), reporter.messages());
+    }
+
+    private static String run(String source, ErrorReporter reporter) {
+        List<Stmt> statements = Fave.compile(source, new ErrorReporter(), CompileOptions.DEFAULT);
+        assertNotNull(statements);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Interpreter(new PrintStream(out, true)).interpret(new Specializer().specialize(statements), reporter);
+        return out.toString().replace("\r\n", "\n");
+    }
+}
@@ -0,0 +1,90 @@
+package com.fabiansimon.fave;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LazyParsingTest {
+    private static final CompileOptions LAZY = CompileOptions.DEFAULT.withLazy(true);
+
+    @Test
+    void rejectsSyntaxErrorInUncalledFunction() {
+        String source = "fun helper() { return 1 }\nprint 2;";
+        ErrorReporter eager = new ErrorReporter();
+        ErrorReporter lazy = new ErrorReporter();
+        Fave.compile(source, eager, CompileOptions.DEFAULT);
+        assertNull(Fave.compile(source, lazy, LAZY));
+        assertEquals(eager.messages(), lazy.messages());
+        assertEquals("[line 1] Error  at '}': Expect ';' after return value", lazy.messages().get(0));
+    }
+
+    @Test
+    void rejectsMissingSemicolonBetweenStatements() {
+        String source = "fun helper() { var a = 1 print a; }\nprint 2;";
+        ErrorReporter eager = new ErrorReporter();
+        ErrorReporter lazy = new ErrorReporter();
+        Fave.compile(source, eager, CompileOptions.DEFAULT);
+        assertNull(Fave.compile(source, lazy, LAZY));
+        assertEquals(eager.messages(), lazy.messages());
+    }
+
+    @Test
+    void skipsBodiesWithoutParsingThem() {
+        String source = "fun helper(x) { var m = {\"a\": x}; if (x > 1) { return m; } else return [x, {}]; }\n";
+        List<Stmt> statements = Fave.compile(source, new ErrorReporter(), LAZY);
+        assertNotNull(statements);
+
+        Stmt.Function helper = (Stmt.Function) statements.get(0);
+        assertNotNull(helper.lazy);
+        assertTrue(helper.body.isEmpty());
+    }
+
+    @Test
+    void reportsOtherErrorsOnFirstCall() {
+        String source = "fun helper() { var a = a; }\nprint 1;\nhelper();\n";
+        List<Stmt> statements = Fave.compile(source, new ErrorReporter(), LAZY);
+        assertNotNull(statements);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ErrorReporter reporter = new ErrorReporter();
+        new Interpreter(new PrintStream(out, true)).interpret(statements, reporter);
+        assertEquals("1\n", out.toString().replace("\r\n", "\n"));
+        assertTrue(reporter.hadRuntimeError());
+        assertTrue(reporter.messages().get(0).contains("Can't read local variable in its own initializer."),
+                () -> reporter.messages().toString());
+    }
+
+    @Test
+    void reportsUnbalancedBracketsLikeEagerParsing() {
+        String source = "fun helper(x) {\n  if (x > 1 { return x; }\n  print [1, 2;\n}\n";
+        ErrorReporter eager = new ErrorReporter();
+        ErrorReporter lazy = new ErrorReporter();
+        Fave.compile(source, eager, CompileOptions.DEFAULT);
+        Fave.compile(source, lazy, LAZY);
+        assertEquals(eager.messages(), lazy.messages());
+    }
+
+    @Test
+    void parsesBodyOnFirstCall() {
+        String source = "var g = 10;\n"
+                + "fun outer(a) { var x = a; fun inner() { x = x + g; return x; } return inner; }\n"
+                + "var f = outer(1);\n"
+                + "print f();\n"
+                + "print f();\n";
+        List<Stmt> statements = Fave.compile(source, new ErrorReporter(), LAZY);
+        assertNotNull(statements);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ErrorReporter reporter = new ErrorReporter();
+        new Interpreter(new PrintStream(out, true)).interpret(statements, reporter);
+        assertFalse(reporter.hadRuntimeError());
+        assertEquals("11\n21\n", out.toString().replace("\r\n", "\n"));
+    }
+}
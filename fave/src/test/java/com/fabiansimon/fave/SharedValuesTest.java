@@ -0,0 +1,90 @@
+package com.fabiansimon.fave;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+class SharedValuesTest {
+    private static final int THREADS = 8;
+
+    @Test
+    void concurrentTransitionsKeepEveryField() throws InterruptedException {
+        for (int round = 0; round < 200; round++) {
+            FaveInstance instance = new FaveInstance(new FaveClass("Box", new SymbolMap<>(), null));
+            runTogether(thread -> {
+                InlineCache cache = new InlineCache();
+                for (int i = 0; i < 4; i++) {
+                    instance.set(name("f" + thread + "_" + i), (double) i, cache);
+                }
+            });
+
+            for (int thread = 0; thread < THREADS; thread++) {
+                for (int i = 0; i < 4; i++) {
+                    assertEquals((double) i, instance.get(name("f" + thread + "_" + i), new InlineCache()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void concurrentAppendsKeepEveryElement() throws InterruptedException {
+        FaveList list = new FaveList();
+        runTogether(thread -> {
+            for (int i = 0; i < 10000; i++) {
+                if (thread % 2 == 0) {
+                    list.addDouble(i);
+                } else {
+                    list.add("s");
+                }
+                list.get(list.size() - 1);
+            }
+        });
+
+        assertEquals(THREADS * 10000, list.size());
+    }
+
+    @Test
+    void concurrentPutsKeepEveryEntry() throws InterruptedException {
+        FaveMap map = new FaveMap();
+        runTogether(thread -> {
+            for (int i = 0; i < 10000; i++) map.put(thread + ":" + i, (double) i);
+        });
+
+        assertEquals(THREADS * 10000, map.size());
+    }
+
+    private interface Task {
+        void run(int thread);
+    }
+
+    private static void runTogether(Task task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> failures = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int thread = i;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    task.run(thread);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+        assertEquals(List.of(), failures);
+    }
+
+    private static Token name(String lexeme) {
+        return new Token(TokenType.IDENTIFIER, lexeme, null, 1);
+    }
+}
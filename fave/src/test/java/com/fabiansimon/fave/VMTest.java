@@ -0,0 +1,77 @@
+package com.fabiansimon.fave;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class VMTest {
+    @Test
+    void keepsUncapturedLocalsInFrameSlots() {
+        String source = "fun mixed(a, b) { var t = a; { var u = b; { var w = t + u; t = w; } } return t; }\n"
+                + "fun rec(n) { if (n < 2) return n; var a = rec(n - 1); var b = rec(n - 2); return a + b; }\n"
+                + "fun tail(n, acc) { if (n == 0) return acc; var m = n - 1; return tail(m, acc + n); }\n"
+                + "print mixed(1, 2);\n"
+                + "print rec(15);\n"
+                + "print tail(10000, 0);\n";
+        assertEquals("3\n610\n5.0005E7\n", run(source));
+    }
+
+    @Test
+    void keepsCapturedLocalsInEnvironments() {
+        String source = "fun counter() { var n = 0; fun inc() { n = n + 1; return n; } return inc; }\n"
+                + "var c = counter(); c();\n"
+                + "print c();\n"
+                + "fun adders() { var fs = []; for (var i = 0; i < 3; i = i + 1) {"
+                + " var j = i; fun f(x) { return x + j; } append(fs, f); } return fs; }\n"
+                + "var fs = adders();\n"
+                + "print fs[0](10) + fs[2](10);\n"
+                + "fun block(a) { var r = 0; { var k = a; fun g() { return k + r; } r = 5; print g(); } return r; }\n"
+                + "print block(4);\n";
+        assertEquals("2\n22\n9\n5\n", run(source));
+    }
+
+    @Test
+    void readsFieldsAndMethodsThroughShapes() {
+        String source = "class A { init(x) { this.x = x; } get() { return this.x; } }\n"
+                + "class B < A { init(x) { super.init(x + 1); this.y = 7; }"
+                + " get() { var base = super.get(); return base + this.y; }"
+                + " closure() { fun h() { return this.y + super.get(); } return h; } }\n"
+                + "var b = B(1);\n"
+                + "print b.get();\n"
+                + "print b.closure()();\n"
+                + "var total = 0;\n"
+                + "for (var i = 0; i < 6; i = i + 1) { class K { init() { this.v = i; } } total = total + K().v; }\n"
+                + "print total;\n";
+        assertEquals("9\n9\n15\n", run(source));
+    }
+
+    @Test
+    void reportsUndefinedProperty() {
+        ErrorReporter reporter = new ErrorReporter();
+        run("class A {}\nvar a = A();\nprint a.missing;\n", reporter);
+        assertTrue(reporter.hadRuntimeError());
+        assertEquals(List.of("Undefined property 'missing'.\n[line 3]"), reporter.messages());
+    }
+
+    private static String run(String source) {
+        ErrorReporter reporter = new ErrorReporter();
+        String out = run(source, reporter);
+        assertFalse(reporter.hadRuntimeError(), () -> reporter.messages().toString());
+        return out;
+    }
+
+    private static String run(String source, ErrorReporter reporter) {
+        List<Stmt> statements = Fave.compile(source, reporter, CompileOptions.DEFAULT);
+        assertNotNull(statements);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new VM(new PrintStream(out, true)).interpret(new BytecodeCompiler().compile(statements), reporter);
+        return out.toString().replace("\r\n", "\n");
+    }
+}
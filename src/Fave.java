@@ -1,108 +0,0 @@
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.List;
-
-public class Fave {
-    private static final Interpreter interpreter = new Interpreter();
-    static boolean hadError = false;
-    static boolean hadRuntimeError = false;
-    public static void main(String[] args) throws IOException {
-        /*
-        Expr expression = new Expr.Binary(
-                new Expr.Unary(
-                        new Token(TokenType.MINUS, "-", null, 1),
-                        new Expr.Literal(123)
-                ),
-                new Token(TokenType.STAR, "*", null, 1),
-                new Expr.Grouping(
-                        new Expr.Literal("45.67")
-                )
-            );
-
-        Expr simpleExpression = new Expr.Binary(
-                new Expr.Binary(
-                        new Expr.Literal(1),
-                        new Token(TokenType.PLUS, "+", null, 1),
-                        new Expr.Literal(2)
-                ),
-                new Token(TokenType.STAR, "*", null, 1),
-                new Expr.Binary(
-                        new Expr.Literal(4),
-                        new Token(TokenType.MINUS, "-", null, 1),
-                        new Expr.Literal(3)
-                )
-        );
-        */
-
-        if (args.length > 1) {
-            System.out.println("Usage: fave [script]");
-        } else if (args.length == 1) {
-            runFile(args[0]);
-        } else {
-            runPrompt();
-        }
-    }
-
-    private static void runFile(String path) throws IOException {
-        byte[] bytes = Files.readAllBytes(Paths.get(path));
-        run(new String(bytes, Charset.defaultCharset()));
-
-        if (hadError) System.exit(65);
-        if (hadRuntimeError) System.exit(70);
-    }
-
-    private static void runPrompt() throws IOException {
-        InputStreamReader input = new InputStreamReader(System.in);
-        BufferedReader reader = new BufferedReader(input);
-
-        while (true) {
-            System.out.print("> ");
-            String line = reader.readLine();
-            if (line == null) break;
-            run(line);
-            hadError = false;
-        }
-    }
-
-    private static void run(String src) {
-        Scanner scanner = new Scanner(src);
-        List<Token> tokens = scanner.scanTokens();
-        Parser parser = new Parser(tokens);
-        List<Stmt> statements = parser.parse();
-
-        if (hadError) return;
-
-        Resolver resolver = new Resolver(interpreter);
-        resolver.resolve(statements);
-
-        if (hadError) return; // stop if there was a resolution error
-
-        interpreter.interpret(statements);
-    }
-
-     static void error(int line, String message) {
-        report(line, "", message);
-    }
-
-    static void error(Token token, String errorMessage) {
-        if (token.type == TokenType.EOF) {
-            report(token.line, " at end", errorMessage);
-        } else {
-            report(token.line, " at '" + token.lexeme + "'", errorMessage);
-        }
-    }
-
-    static void runtimeError(RuntimeError error) {
-        System.err.println(error.getMessage() + "\n[line " + error.token.line + "]");
-        hadRuntimeError = true;
-    }
-
-    static void report(int line, String location, String message) {
-        System.err.println("[line " + line + "] Error " + location + ": " + message);
-        hadError = true;
-    }
-}
\ No newline at end of file
@@ -1,49 +0,0 @@
-import java.util.List;
-
-public class FaveFunction implements FaveCallable {
-    private final Stmt.Function declaration;
-    private final Environment closure;
-    private final boolean isInitializer;
-
-    public FaveFunction(Stmt.Function declaration, Environment closure, boolean isInitializer) {
-        this.declaration = declaration;
-        this.closure = closure;
-        this.isInitializer = isInitializer;
-    }
-
-    FaveFunction bind(FaveInstance instance) {
-        Environment environment = new Environment(closure);
-        environment.define("this", instance);
-        return new FaveFunction(declaration, environment, isInitializer);
-    }
-
-    @Override
-    public String toString() {
-        return "<fn " + declaration.name.lexeme + ">";
-    }
-
-    @Override
-    public int arity() {
-        return declaration.params.size();
-    }
-
-    @Override
-    public Object call(Interpreter interpreter, List<Object> args) {
-        Environment environment = new Environment(closure);
-        for (int i = 0; i < declaration.params.size(); i++) {
-            environment.define(declaration.params.get(i).lexeme, args.get(i));
-        }
-
-        try {
-            interpreter.executeBlock(declaration.body, environment);
-        } catch (Return returnValue) {
-            if (isInitializer) return closure.getAt(0, "this");
-
-            return returnValue.value;
-        }
-
-
-        if (isInitializer) return closure.getAt(0, "this");
-        return null;
-    }
-}
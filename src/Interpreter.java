@@ -1,417 +0,0 @@
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
-    final Environment globals = new Environment();
-    private Environment environment = globals;
-    private final Map<Expr, Integer> locals = new HashMap<>();
-    Interpreter() {
-        globals.define("clock", new FaveCallable() {
-            @Override
-            public int arity() {
-                return 0;
-            }
-
-            @Override
-            public Object call(Interpreter interpreter, List<Object> args) {
-                return (double) System.currentTimeMillis() / 1000.0;
-            }
-
-            @Override
-            public String toString() {
-                return "<native fn>";
-            }
-        });
-    }
-
-    void interpret(List<Stmt> statements) {
-        try {
-            for (Stmt statement : statements) {
-                execute(statement);
-            }
-        } catch (RuntimeError error) {
-            Fave.runtimeError(error);
-        }
-    }
-
-    @Override
-    public Object visitAssignExpr(Expr.Assign expr) {
-        Object value = evaluate(expr.value);
-
-        Integer distance = locals.get(expr);
-        if (distance != null) {
-            environment.assignAt(distance, expr.name, value);
-        } else {
-            globals.assign(expr.name, value);
-        }
-
-        return value;
-    }
-
-    @Override
-    public Object visitBinaryExpr(Expr.Binary expr) {
-        Object left = evaluate(expr.left);
-        Object right = evaluate(expr.right);
-
-        switch (expr.operator.type) {
-            case GREATER:
-                checkNumberOperand(expr.operator, left, right);
-                return (double) left > (double) right;
-            case GREATER_EQUAL:
-                checkNumberOperand(expr.operator, left, right);
-                return (double) left >= (double) right;
-            case LESS:
-                checkNumberOperand(expr.operator, left, right);
-                return (double) left < (double) right;
-            case LESS_EQUAL:
-                checkNumberOperand(expr.operator, left, right);
-                return (double) left <= (double) right;
-            case MINUS:
-                checkNumberOperand(expr.operator, left, right);
-                return (double) left - (double) right;
-            case BANG_EQUAL:
-                return !isEqual(left, right);
-            case EQUAL_EQUAL:
-                return isEqual(left, right);
-            case STAR:
-                if (left instanceof String && right instanceof Double ||
-                    left instanceof Double && right instanceof String)
-                    return mulitplyDynamicString(left, right);
-
-                checkNumberOperand(expr.operator, left, right);
-                return (double) left * (double) right;
-            case SLASH:
-                checkNumberOperand(expr.operator, left, right);
-                if ((double) right == 0) {
-                    return 42;
-                }
-                return (double) left / (double) right;
-            case PLUS:
-                if (left instanceof String && right instanceof String)
-                    return (String) left + (String) right;
-
-                if (left instanceof Double && right instanceof Double)
-                    return (double) left + (double) right;
-
-                if (left instanceof String && right instanceof Double ||
-                    left instanceof Double && right instanceof String) {
-                    return concatDynamicString(left, right);
-                }
-
-                throw new RuntimeError(expr.operator, "Operands not supported.");
-        }
-
-        // unreachable (hopefully)
-        return null;
-    }
-
-    @Override
-    public Object visitCallExpr(Expr.Call expr) {
-        Object callee = evaluate(expr.callee);
-
-        List<Object> args = new ArrayList<>();
-        for (Expr argument : expr.arguments) {
-            args.add(evaluate(argument));
-        }
-
-        if (!(callee instanceof FaveCallable)) {
-            throw new RuntimeError(expr.paren, "Can only call functions and classes.");
-        }
-
-        FaveCallable function = (FaveCallable) callee;
-
-        if (args.size() != function.arity()) {
-            throw new RuntimeError(expr.paren, "Expect " + function.arity() + " arguments but got " + args.size() + " instead.");
-        }
-        return function.call(this, args);
-    }
-
-    @Override
-    public Object visitGetExpr(Expr.Get expr) {
-        Object object = evaluate(expr.object);
-        if (object instanceof FaveInstance) {
-            return ((FaveInstance) object).get(expr.name);
-        }
-
-        throw new RuntimeError(expr.name, "Only instances have properties");
-    }
-
-    @Override
-    public Object visitGroupingExpr(Expr.Grouping expr) {
-        return evaluate(expr.expression);
-    }
-
-    @Override
-    public Object visitLiteralExpr(Expr.Literal expr) {
-        return expr.value;
-    }
-
-    @Override
-    public Object visitLogicalExpr(Expr.Logical expr) {
-        Object left = evaluate(expr.left);
-
-        if (expr.operator.type == TokenType.OR) {
-            if (isTruthful(left)) return left;
-        } else {
-            if (!isTruthful(left)) return left;
-        }
-
-        return expr.right;
-    }
-
-    @Override
-    public Object visitUnaryExpr(Expr.Unary expr) {
-        Object right = evaluate(expr.right);
-
-        switch (expr.operator.type) {
-            case BANG:
-                return !isTruthful(right);
-            case MINUS:
-                checkNumberOperand(expr.operator, right);
-                return -(double) right;
-        }
-
-        return null;
-    }
-
-    @Override
-    public Object visitSetExpr(Expr.Set expr) {
-        Object object = evaluate(expr.object);
-
-        if (!(object instanceof FaveInstance)) {
-            throw new RuntimeError(expr.name, "Only instances have field");
-        }
-
-        Object value = evaluate(expr.value);
-        ((FaveInstance) object).set(expr.name, value);
-        return value;
-    }
-
-    @Override
-    public Object visitSuperExpr(Expr.Super expr) {
-        int distance = locals.get(expr);
-        FaveClass superclass = (FaveClass) environment.getAt(distance, "super");
-
-        FaveInstance object = (FaveInstance) environment.getAt(distance - 1, "this");
-        FaveFunction method = superclass.findMethod(expr.method.lexeme);
-
-        if (method == null) {
-            throw new RuntimeError(expr.method, "Undefined property '" + expr.method.lexeme + "'.");
-        }
-
-        return method.bind(object);
-    }
-
-    @Override
-    public Object visitThisExpr(Expr.This expr) {
-        return lookUpVariable(expr.keyword, expr);
-    }
-
-    @Override
-    public Object visitVariableExpr(Expr.Variable expr) {
-        return lookUpVariable(expr.name, expr);
-    }
-
-    private Object lookUpVariable(Token name, Expr expr) {
-        Integer distance = locals.get(expr);
-        if (distance != null) {
-            return environment.getAt(distance, name.lexeme);
-        } else {
-            return globals.get(name);
-        }
-    }
-
-    private void checkNumberOperand(Token operator, Object operand) {
-        if (operand instanceof Double) return;
-        throw new RuntimeError(operator, "Operand must be a number.");
-    }
-    private void checkNumberOperand(Token operator, Object left, Object right) {
-        if (left instanceof Double && right instanceof Double) return;
-        throw new RuntimeError(operator, "Operands must be numbers.");
-    }
-
-    private String concatDynamicString(Object a, Object b) {
-        String repl;
-        if (a instanceof Double) {
-            repl = a.toString();
-        } else {
-            repl = b.toString();
-        }
-
-        if (repl.endsWith(".0")) repl = repl.substring(0, repl.length()-2);
-
-        return a instanceof String ? a + repl : repl + b;
-    }
-
-    private String mulitplyDynamicString(Object a, Object b) {
-        StringBuilder string = new StringBuilder();
-        String text = "";
-        Double multiplicator = 0.0;
-        if (a instanceof Double) {
-            multiplicator = (double) a;
-            text = b.toString();
-        } else {
-            multiplicator = (double) b;
-            text = a.toString();
-        }
-
-        for (int i = 0; i < Math.floor(multiplicator); i++)
-            string.append(text);
-
-        return string.toString();
-    }
-
-    public boolean isTruthful(Object object) {
-        if (object == null) return false;
-        if (object instanceof Boolean) return (boolean) object;
-
-        return true;
-    }
-
-    private boolean isEqual(Object a, Object b) {
-        if (a == null && b == null) return true;
-        if (a == null) return false;
-
-        return a.equals(b);
-    }
-
-    private String stringify(Object object) {
-        if (object == null) return "nil";
-
-        if (object instanceof Double) {
-            String text = object.toString();
-            if (text.endsWith(".0")) {
-                text = text.substring(0, text.length() - 2);
-            }
-
-            return text;
-        }
-
-        return object.toString();
-    }
-
-    private Object evaluate(Expr expr) {
-        return expr.accept(this);
-    }
-
-    private void execute(Stmt stmt) {
-        stmt.accept(this);
-    }
-
-    void resolve(Expr expr, int depth) {
-        locals.put(expr, depth);
-    }
-
-
-    public void executeBlock(List<Stmt> statements, Environment environment) {
-        Environment previous = this.environment;
-
-        try {
-            this.environment = environment;
-            for (Stmt statement : statements) {
-                execute(statement);
-            }
-        } finally {
-            this.environment = previous;
-        }
-    }
-
-    @Override
-    public Void visitBlockStmt(Stmt.Block stmt) {
-        executeBlock(stmt.statements, new Environment(environment));
-        return null;
-    }
-
-    @Override
-    public Void visitClassStmt(Stmt.Class stmt) {
-        Object superclass = null;
-
-        if (stmt.superclass != null) {
-            superclass = evaluate(stmt.superclass);
-            if (!(superclass instanceof FaveClass)) {
-                throw new RuntimeError(stmt.superclass.name, "Superclass mus be a class");
-            }
-        }
-        environment.define(stmt.name.lexeme, null);
-
-        if (stmt.superclass != null) {
-            environment = new Environment(environment);
-            environment.define("super", superclass);
-        }
-
-        Map<String, FaveFunction> methods = new HashMap<>();
-        for (Stmt.Function method : stmt.methods) {
-            FaveFunction function = new FaveFunction(method, environment, method.name.lexeme.equals("init"));
-            methods.put(method.name.lexeme, function);
-        }
-
-        FaveClass fClass = new FaveClass(stmt.name.lexeme, methods, (FaveClass) superclass);
-
-        if (stmt.superclass != null) {
-            environment = environment.enclosing;
-        }
-
-        environment.assign(stmt.name, fClass);
-        return null;
-    }
-
-    @Override
-    public Void visitExpressionStmt(Stmt.Expression stmt) {
-        evaluate(stmt.expression);
-        return null;
-    }
-
-    @Override
-    public Void visitFunctionStmt(Stmt.Function stmt) {
-        FaveFunction function = new FaveFunction(stmt, environment, false);
-        environment.define(stmt.name.lexeme, function);
-        return null;
-    }
-
-    @Override
-    public Void visitIfStmt(Stmt.If stmt) {
-        if (isTruthful(evaluate(stmt.condition))) {
-            execute(stmt.thenBranch);
-        } else if (stmt.elseBranch != null) {
-            execute(stmt.elseBranch);
-        }
-        return null;
-    }
-
-    @Override
-    public Void visitPrintStmt(Stmt.Print stmt) {
-        Object value = evaluate(stmt.expression);
-        System.out.println(stringify(value));
-        return null;
-    }
-
-    @Override
-    public Void visitReturnStmt(Stmt.Return stmt) {
-        Object value = null;
-        if (stmt.value != null) value = evaluate(stmt.value);
-
-        throw new Return(value);
-    }
-
-    @Override
-    public Void visitVarStmt(Stmt.Var stmt) {
-        Object value = null;
-        if (stmt.initializer != null) {
-            value = evaluate(stmt.initializer);
-        }
-
-        environment.define(stmt.name.lexeme, value);
-        return null;
-    }
-
-    @Override
-    public Void visitWhileStmt(Stmt.While stmt) {
-        while (isTruthful(evaluate(stmt.condition))) {
-            execute(stmt.body);
-        }
-
-        return null;
-    }
-}